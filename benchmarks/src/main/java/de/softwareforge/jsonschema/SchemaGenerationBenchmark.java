@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.softwareforge.jsonschema.inheritance.CollegeStudent;
+import de.softwareforge.jsonschema.inheritance.MusicItem;
+import de.softwareforge.jsonschema.inheritance.WarrantyItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schema generation throughput over the test fixtures of the main artifact.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+public class SchemaGenerationBenchmark {
+
+    public enum Fixture {
+        PRODUCT(ProductTest.Product.class, ProductTest.ComplexProduct.class),
+        EMPLOYEE(EmployeeTest.Employee.class, FieldsOnlyTest.Employee.class),
+        INHERITANCE(MusicItem.class, WarrantyItem.class, CollegeStudent.class),
+        GENERICS(GenericsTest.GenericExample.class),
+        ENUMS(EnumTest.Hyperthing.class);
+
+        private final Class<?>[] types;
+
+        Fixture(Class<?>... types) {
+            this.types = types;
+        }
+    }
+
+    public enum Configuration {
+        PROPERTIES {
+            @Override
+            JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder configure(
+                    JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder builder) {
+                return builder;
+            }
+        },
+        FIELDS {
+            @Override
+            JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder configure(
+                    JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder builder) {
+                return builder.processFields().disableProcessProperties();
+            }
+        };
+
+        abstract JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder configure(
+                JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder builder);
+    }
+
+    @Param
+    public Fixture fixture;
+
+    @Param
+    public Configuration configuration;
+
+    @Param({"false", "true"})
+    public boolean schemaCache;
+
+    private JsonSchemaGenerator generator;
+
+    @Setup
+    public void setUp() {
+        JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder builder = configuration.configure(JsonSchemaGeneratorBuilder.draftV4Schema());
+        if (!schemaCache) {
+            builder.disableSchemaCache();
+        }
+        this.generator = builder.build();
+    }
+
+    @Benchmark
+    public void generateSchema(Blackhole blackhole) {
+        for (Class<?> type : fixture.types) {
+            ObjectNode schema = generator.generateSchema(type);
+            blackhole.consume(schema);
+        }
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema.processor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import de.softwareforge.jsonschema.AttributeHolder;
+import de.softwareforge.jsonschema.SchemaDraft;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.annotations.Nullable;
+import de.softwareforge.jsonschema.annotations.SchemaIgnore;
+import de.softwareforge.jsonschema.annotations.SchemaIgnoreProperties;
+
+import java.beans.Introspector;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Generates the same schemas as the {@link de.softwareforge.jsonschema.JsonSchemaGenerator} from the compile time model of a type.
+ */
+final class ElementSchemaGenerator {
+
+    private static final ImmutableMap<TypeKind, SimpleType> PRIMITIVE_TYPES = ImmutableMap.<TypeKind, SimpleType>builder()
+            .put(TypeKind.BYTE, new SimpleType("integer", "int8"))
+            .put(TypeKind.SHORT, new SimpleType("integer", "int16"))
+            .put(TypeKind.INT, new SimpleType("integer", "int32"))
+            .put(TypeKind.LONG, new SimpleType("integer", "int64"))
+            .put(TypeKind.FLOAT, new SimpleType("number", "float"))
+            .put(TypeKind.DOUBLE, new SimpleType("number", "double"))
+            .put(TypeKind.BOOLEAN, new SimpleType("boolean", ""))
+            .put(TypeKind.CHAR, new SimpleType("string", ""))
+            .build();
+
+    // must match the SimpleTypeMappings of the generator
+    private static final ImmutableMap<String, SimpleType> DECLARED_TYPES = ImmutableMap.<String, SimpleType>builder()
+            .put(Byte.class.getName(), new SimpleType("integer", "int8"))
+            .put(Short.class.getName(), new SimpleType("integer", "int16"))
+            .put(Integer.class.getName(), new SimpleType("integer", "int32"))
+            .put(Long.class.getName(), new SimpleType("integer", "int64"))
+            .put(BigInteger.class.getName(), new SimpleType("integer", "precise"))
+            .put(Float.class.getName(), new SimpleType("number", "float"))
+            .put(Double.class.getName(), new SimpleType("number", "double"))
+            .put(BigDecimal.class.getName(), new SimpleType("number", "precise"))
+            .put(Boolean.class.getName(), new SimpleType("boolean", ""))
+            .put(Character.class.getName(), new SimpleType("string", ""))
+            .put(CharSequence.class.getName(), new SimpleType("string", ""))
+            .put(String.class.getName(), new SimpleType("string", ""))
+            .put(UUID.class.getName(), new SimpleType("string", "uuid"))
+            .put(URI.class.getName(), new SimpleType("string", "uri"))
+            .put(ZonedDateTime.class.getName(), new SimpleType("string", "date-time"))
+            .put(LocalDateTime.class.getName(), new SimpleType("string", "date-time"))
+            .put(OffsetDateTime.class.getName(), new SimpleType("string", "date-time"))
+            .put(LocalDate.class.getName(), new SimpleType("string", "date"))
+            .put(LocalTime.class.getName(), new SimpleType("string", "time"))
+            .put(OffsetTime.class.getName(), new SimpleType("string", "time"))
+            .put(Date.class.getName(), new SimpleType("string", "date-time"))
+            .put(Instant.class.getName(), new SimpleType("string", "date-time"))
+            .build();
+
+    private final Types types;
+    private final Elements elements;
+    private final boolean processProperties;
+    private final boolean processFields;
+    private final boolean sortSchemaProperties;
+
+    private final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+    private final Set<String> dictionary = new HashSet<>();
+    private final TypeMirror iterableType;
+
+    ElementSchemaGenerator(Types types, Elements elements, boolean processProperties, boolean processFields, boolean sortSchemaProperties) {
+        this.types = checkNotNull(types, "types is null");
+        this.elements = checkNotNull(elements, "elements is null");
+        this.processProperties = processProperties;
+        this.processFields = processFields;
+        this.sortSchemaProperties = sortSchemaProperties;
+
+        this.iterableType = types.erasure(elements.getTypeElement(Iterable.class.getName()).asType());
+    }
+
+    /**
+     * Generates the schema for a type, without the schema version.
+     */
+    ObjectNode generateSchema(TypeElement typeElement) throws UnsupportedTypeException {
+        if (!typeElement.getTypeParameters().isEmpty()) {
+            throw new UnsupportedTypeException("type parameters are only resolved at runtime");
+        }
+
+        ObjectNode schema = nodeFactory.objectNode();
+        createSchemaForType(schema, typeElement.asType(), locate(typeElement));
+        return schema;
+    }
+
+    private void createSchemaForType(ObjectNode schema, TypeMirror type, Optional<AttributeHolder> attributes) throws UnsupportedTypeException {
+        String typeName = type.toString();
+        if (dictionary.contains(typeName)) {
+            throw new UnsupportedTypeException(format(Locale.ENGLISH, "%s is recursive", typeName));
+        }
+
+        if ((type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.WILDCARD) && !isUnbounded(type)) {
+            throw new UnsupportedTypeException(format(Locale.ENGLISH, "%s is bounded", typeName));
+        }
+
+        Optional<String> overriddenType = attributes.isPresent()
+                ? attributes.get().type()
+                : Optional.empty();
+
+        Optional<SimpleType> simpleType = simpleType(type);
+
+        if (simpleType.isPresent()) {
+            addTypeToSchema(schema, overriddenType.orElse(simpleType.get().schemaType));
+            if (!simpleType.get().formatHint.isEmpty()) {
+                schema.put("format", simpleType.get().formatHint);
+            }
+        } else if (isCollectionLike(type)) {
+            augmentSchemaWithCollection(schema, type);
+        } else if (isVoid(type)) {
+            addTypeToSchema(schema, overriddenType.orElse("null"));
+        } else if (isEnum(type, attributes)) {
+            augmentSchemaWithEnum(schema, type);
+        } else {
+            dictionary.add(typeName);
+            try {
+                augmentSchemaWithCustomType(schema, type, attributes);
+            } finally {
+                dictionary.remove(typeName);
+            }
+        }
+
+        if (attributes.isPresent()) {
+            augmentAttributes(schema, type, attributes.get());
+        }
+    }
+
+    private Optional<SimpleType> simpleType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return Optional.of(PRIMITIVE_TYPES.get(type.getKind()));
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            String name = binaryName(declaredType);
+            if (declaredType.getTypeArguments().isEmpty()) {
+                return Optional.ofNullable(DECLARED_TYPES.get(name));
+            } else if (Optional.class.getName().equals(name)) {
+                // optionals report as their member type but never have a format
+                return simpleType(declaredType.getTypeArguments().get(0)).map(simpleType -> new SimpleType(simpleType.schemaType, ""));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isCollectionLike(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && types.isAssignable(types.erasure(type), iterableType);
+    }
+
+    private boolean isVoid(TypeMirror type) {
+        return type.getKind() == TypeKind.VOID
+                || (type.getKind() == TypeKind.DECLARED && Void.class.getName().equals(binaryName((DeclaredType) type)));
+    }
+
+    private boolean isEnum(TypeMirror type, Optional<AttributeHolder> attributes) {
+        if (attributes.isPresent() && !attributes.get().enums().isEmpty()) {
+            return true;
+        }
+
+        return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    }
+
+    private boolean isUnbounded(TypeMirror type) {
+        if (type.getKind() == TypeKind.WILDCARD) {
+            WildcardType wildcardType = (WildcardType) type;
+            return wildcardType.getExtendsBound() == null || isObject(wildcardType.getExtendsBound());
+        }
+        return isObject(((TypeVariable) type).getUpperBound());
+    }
+
+    private boolean isObject(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && Object.class.getName().equals(binaryName((DeclaredType) type));
+    }
+
+    private void augmentSchemaWithEnum(ObjectNode schema, TypeMirror type) throws UnsupportedTypeException {
+        if (type.getKind() != TypeKind.DECLARED || ((DeclaredType) type).asElement().getKind() != ElementKind.ENUM) {
+            throw new UnsupportedTypeException(format(Locale.ENGLISH, "%s has enum values but is no enum", type));
+        }
+
+        // The generator uses the toString() value of each constant. At compile time, this value is only known if it is the name of the constant.
+        TypeElement enumElement = (TypeElement) ((DeclaredType) type).asElement();
+        if (!enumElement.getModifiers().contains(Modifier.FINAL)) {
+            throw new UnsupportedTypeException(format(Locale.ENGLISH, "%s has constants with class bodies", type));
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(enumElement.getEnclosedElements())) {
+            if (method.getSimpleName().contentEquals("toString") && method.getParameters().isEmpty()) {
+                throw new UnsupportedTypeException(format(Locale.ENGLISH, "%s overrides toString()", type));
+            }
+        }
+
+        ArrayNode enumArray = schema.putArray("enum");
+        for (Element element : enumElement.getEnclosedElements()) {
+            if (element.getKind() == ElementKind.ENUM_CONSTANT) {
+                // constant names are java identifiers and never numeric
+                enumArray.add(element.getSimpleName().toString());
+            }
+        }
+    }
+
+    private void augmentSchemaWithCollection(ObjectNode schema, TypeMirror type) throws UnsupportedTypeException {
+        addTypeToSchema(schema, "array");
+
+        DeclaredType declaredType = (DeclaredType) type;
+        TypeElement typeElement = (TypeElement) declaredType.asElement();
+        if (typeElement.getTypeParameters().isEmpty()) {
+            throw new UnsupportedTypeException(format(Locale.ENGLISH, "%s has no type arguments", type));
+        }
+
+        // the generator uses the first type argument, raw types keep the type variable.
+        TypeMirror itemType = declaredType.getTypeArguments().isEmpty()
+                ? typeElement.getTypeParameters().get(0).asType()
+                : declaredType.getTypeArguments().get(0);
+
+        Optional<AttributeHolder> itemAttributes = itemType.getKind() == TypeKind.DECLARED
+                ? locate(((DeclaredType) itemType).asElement())
+                : Optional.empty();
+
+        ObjectNode itemNode = nodeFactory.objectNode();
+        createSchemaForType(itemNode, itemType, itemAttributes);
+        schema.set("items", itemNode);
+    }
+
+    private void augmentSchemaWithCustomType(ObjectNode schema, TypeMirror type, Optional<AttributeHolder> attributes) throws UnsupportedTypeException {
+        addTypeToSchema(schema, "object");
+
+        if (attributes.isPresent() && attributes.get().ignoredProperties()) {
+            return;
+        }
+
+        List<DeclaredType> typeHierarchy = typeHierarchy(type);
+
+        if (processProperties) {
+            for (Map.Entry<String, ObjectNode> property : findSchemaPropertiesFromMethods(typeHierarchy, schema).entrySet()) {
+                addToProperties(schema, property.getKey(), property.getValue());
+            }
+        }
+
+        if (processFields) {
+            for (Map.Entry<String, ObjectNode> property : findSchemaPropertiesFromFields(typeHierarchy, schema).entrySet()) {
+                addToProperties(schema, property.getKey(), property.getValue());
+            }
+        }
+    }
+
+    // members are ordered by name, like the members that the generator finds by reflection
+    private static <T extends Element> List<T> sortedByName(List<T> elements) {
+        return elements.stream()
+                .sorted(Comparator.comparing(element -> element.getSimpleName().toString()))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, ObjectNode> findSchemaPropertiesFromMethods(List<DeclaredType> typeHierarchy, ObjectNode parent)
+            throws UnsupportedTypeException {
+        Map<String, ObjectNode> propertyMap = sortSchemaProperties ? new TreeMap<>() : new LinkedHashMap<>();
+
+        for (DeclaredType declaredType : typeHierarchy) {
+            for (ExecutableElement method : sortedByName(ElementFilter.methodsIn(declaredType.asElement().getEnclosedElements()))) {
+                if (method.isDefault() || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+
+                Optional<AttributeHolder> attributeHolder = locate(method);
+                if (!attributeHolder.isPresent()) {
+                    continue;
+                }
+
+                AttributeHolder attributes = attributeHolder.get();
+                String propertyName = attributes.named().isPresent() ? attributes.named().get() : propertyName(method);
+
+                if (propertyMap.containsKey(propertyName)) {
+                    throw new UnsupportedTypeException(format(Locale.ENGLISH, "Property %s defined multiple times", propertyName));
+                }
+
+                if (attributes.required()) {
+                    addToRequired(parent, propertyName);
+                }
+
+                if (attributes.ignored()) {
+                    continue;
+                }
+
+                TypeMirror returnType = ((ExecutableType) types.asMemberOf(declaredType, method)).getReturnType();
+
+                ObjectNode propertyNode = nodeFactory.objectNode();
+                createSchemaForType(propertyNode, returnType, attributeHolder);
+                propertyMap.put(propertyName, propertyNode);
+            }
+        }
+
+        return propertyMap;
+    }
+
+    private Map<String, ObjectNode> findSchemaPropertiesFromFields(List<DeclaredType> typeHierarchy, ObjectNode parent)
+            throws UnsupportedTypeException {
+        Map<String, ObjectNode> propertyMap = sortSchemaProperties ? new TreeMap<>() : new LinkedHashMap<>();
+
+        for (DeclaredType declaredType : typeHierarchy) {
+            for (VariableElement field : sortedByName(ElementFilter.fieldsIn(declaredType.asElement().getEnclosedElements()))) {
+                if (field.getKind() == ElementKind.ENUM_CONSTANT
+                        || field.getModifiers().contains(Modifier.TRANSIENT)
+                        || field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+
+                Optional<AttributeHolder> attributeHolder = locate(field);
+                if (!attributeHolder.isPresent()) {
+                    continue;
+                }
+
+                AttributeHolder attributes = attributeHolder.get();
+                String propertyName = attributes.named().orElse(field.getSimpleName().toString());
+
+                if (propertyMap.containsKey(propertyName)) {
+                    throw new UnsupportedTypeException(format(Locale.ENGLISH, "Property %s defined multiple times", propertyName));
+                }
+
+                if (attributes.required()) {
+                    addToRequired(parent, propertyName);
+                }
+
+                if (attributes.ignored()) {
+                    continue;
+                }
+
+                TypeMirror fieldType = types.asMemberOf(declaredType, field);
+
+                ObjectNode propertyNode = nodeFactory.objectNode();
+                createSchemaForType(propertyNode, fieldType, attributeHolder);
+                propertyMap.put(propertyName, propertyNode);
+            }
+        }
+
+        return propertyMap;
+    }
+
+    /**
+     * Orders a type and all of its supertypes the same way as the generator does: subtypes are always listed before their supertypes.
+     */
+    private List<DeclaredType> typeHierarchy(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            // type variables and arrays have no annotated members
+            return ImmutableList.of();
+        }
+
+        Map<String, DeclaredType> declaredTypes = new LinkedHashMap<>();
+        Map<String, Integer> levels = new LinkedHashMap<>();
+        collectTypes((DeclaredType) type, declaredTypes, levels);
+
+        return declaredTypes.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<String, DeclaredType> entry) -> levels.get(entry.getKey())).reversed())
+                .map(Map.Entry::getValue)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private int collectTypes(DeclaredType type, Map<String, DeclaredType> declaredTypes, Map<String, Integer> levels) {
+        String typeName = type.toString();
+        Integer existing = levels.get(typeName);
+        if (existing != null) {
+            return existing;
+        }
+
+        boolean isInterface = type.asElement().getKind().isInterface();
+        // Interfaces should be listed before Object.
+        int aboveMe = isInterface ? 1 : 0;
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            // the compile time model lists Object as supertype of an interface
+            if (isInterface && isObject(supertype)) {
+                continue;
+            }
+            aboveMe = Math.max(aboveMe, collectTypes((DeclaredType) supertype, declaredTypes, levels));
+        }
+
+        declaredTypes.put(typeName, type);
+        levels.put(typeName, aboveMe + 1);
+        return aboveMe + 1;
+    }
+
+    private void augmentAttributes(ObjectNode schema, TypeMirror type, AttributeHolder schemaAttributes) throws UnsupportedTypeException {
+        // precomputed schemas are draft 4
+        schemaAttributes.augmentCommonAttributes(schema, SchemaDraft.DRAFT_04);
+        schemaAttributes.$ref().ifPresent($ref -> schema.put("$ref", $ref));
+
+        if (!schemaAttributes.additionalProperties()) {
+            schema.put("additionalProperties", false);
+        }
+
+        if (schemaAttributes.nullable()) {
+            boolean isEnum = isEnum(type, Optional.of(schemaAttributes));
+            if (isEnum) {
+                ((ArrayNode) schema.get("enum")).addNull();
+            }
+            // enum classes have no type, a null type would reject all constants.
+            if (!isEnum || schema.has("type")) {
+                addTypeToSchema(schema, "null");
+            }
+        }
+    }
+
+    private String propertyName(ExecutableElement method) throws UnsupportedTypeException {
+        String name = method.getSimpleName().toString();
+        TypeKind returnKind = method.getReturnType().getKind();
+
+        // same rules as the introspector
+        if (method.getModifiers().contains(Modifier.PUBLIC)) {
+            switch (method.getParameters().size()) {
+                case 0:
+                    if (returnKind == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")) {
+                        return Introspector.decapitalize(name.substring(2));
+                    } else if (returnKind != TypeKind.VOID && name.length() > 3 && name.startsWith("get")) {
+                        return Introspector.decapitalize(name.substring(3));
+                    }
+                    break;
+                case 1:
+                    if (returnKind == TypeKind.VOID && name.length() > 3 && name.startsWith("set")) {
+                        return Introspector.decapitalize(name.substring(3));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // getter style
+        if (method.getParameters().isEmpty() && returnKind != TypeKind.VOID) {
+            return name;
+        }
+
+        throw new UnsupportedTypeException(format(Locale.ENGLISH, "Could not locate property name for %s", name));
+    }
+
+    private static void addToRequired(ObjectNode schema, String name) {
+        ArrayNode requiredNode;
+        if (schema.has("required")) {
+            requiredNode = (ArrayNode) schema.get("required");
+        } else {
+            requiredNode = schema.putArray("required");
+        }
+        requiredNode.add(name);
+    }
+
+    private static void addToProperties(ObjectNode schema, String name, ObjectNode property) {
+        ObjectNode propertiesNode;
+        if (schema.has("properties")) {
+            propertiesNode = (ObjectNode) schema.get("properties");
+        } else {
+            propertiesNode = schema.putObject("properties");
+        }
+        propertiesNode.set(name, property);
+    }
+
+    private static void addTypeToSchema(ObjectNode schema, String type) throws UnsupportedTypeException {
+        if (schema.has("type")) {
+            JsonNode typeNode = schema.get("type");
+            if (typeNode.isArray()) {
+                ((ArrayNode) typeNode).add(type);
+            } else if (typeNode.isTextual()) {
+                ArrayNode typeArray = schema.putArray("type");
+                typeArray.add(typeNode);
+                typeArray.add(type);
+            } else {
+                throw new UnsupportedTypeException("Return type is not nullable");
+            }
+        } else {
+            schema.put("type", type);
+        }
+    }
+
+    private String binaryName(DeclaredType declaredType) {
+        return elements.getBinaryName((TypeElement) declaredType.asElement()).toString();
+    }
+
+    private static Optional<AttributeHolder> locate(Element element) {
+        AttributeHolder.Builder builder = AttributeHolder.builder();
+
+        boolean foundAnnotations = false;
+        JsonSchema jsonSchema = element.getAnnotation(JsonSchema.class);
+        if (jsonSchema != null) {
+            builder.attributes(jsonSchema);
+            foundAnnotations = true;
+        }
+
+        JsonProperty jsonProperty = element.getAnnotation(JsonProperty.class);
+        if (jsonProperty != null) {
+            foundAnnotations = true;
+            if (jsonProperty.required()) {
+                builder.required(true);
+            }
+            if (!jsonProperty.value().isEmpty()) {
+                builder.named(jsonProperty.value());
+            }
+        }
+
+        if (element.getAnnotation(SchemaIgnore.class) != null) {
+            foundAnnotations = true;
+            builder.ignored(true);
+        }
+
+        if (element.getAnnotation(SchemaIgnoreProperties.class) != null) {
+            foundAnnotations = true;
+            builder.ignoredProperties(true);
+        }
+
+        if (element.getAnnotation(Nullable.class) != null) {
+            foundAnnotations = true;
+            builder.nullable(true);
+        }
+
+        return foundAnnotations ? Optional.of(builder.build()) : Optional.empty();
+    }
+
+    private static final class SimpleType {
+
+        private final String schemaType;
+        private final String formatHint;
+
+        private SimpleType(String schemaType, String formatHint) {
+            this.schemaType = schemaType;
+            this.formatHint = formatHint;
+        }
+    }
+}
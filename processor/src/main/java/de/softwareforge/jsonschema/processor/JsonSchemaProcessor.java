@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema.processor;
+
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import de.softwareforge.jsonschema.PrecomputedSchemas;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates the schemas for all types that are annotated with {@link JsonSchema} at compile time and stores them as class path
+ * resources. Types that can not be fully described at compile time (e.g. recursive types or enums that override {@link Object#toString()})
+ * are skipped, the generator will fall back to reflection for those.
+ * <p>
+ * The generator settings can be controlled with the {@code jsonschema.processProperties}, {@code jsonschema.processFields} and
+ * {@code jsonschema.sortSchemaProperties} processor options. They default to the settings of
+ * {@link de.softwareforge.jsonschema.JsonSchemaGeneratorBuilder#draftV4Schema()}.
+ */
+public final class JsonSchemaProcessor extends AbstractProcessor {
+
+    public static final String OPTION_PROCESS_PROPERTIES = "jsonschema.processProperties";
+    public static final String OPTION_PROCESS_FIELDS = "jsonschema.processFields";
+    public static final String OPTION_SORT_SCHEMA_PROPERTIES = "jsonschema.sortSchemaProperties";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return ImmutableSet.of(JsonSchema.class.getName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return ImmutableSet.of(OPTION_PROCESS_PROPERTIES, OPTION_PROCESS_FIELDS, OPTION_SORT_SCHEMA_PROPERTIES);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        boolean processProperties = option(OPTION_PROCESS_PROPERTIES, true);
+        boolean processFields = option(OPTION_PROCESS_FIELDS, false);
+        boolean sortSchemaProperties = option(OPTION_SORT_SCHEMA_PROPERTIES, true);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(JsonSchema.class)) {
+            if (!(element.getKind().isClass() || element.getKind().isInterface()) || element.getKind() == ElementKind.ANNOTATION_TYPE) {
+                continue;
+            }
+
+            TypeElement typeElement = (TypeElement) element;
+            ElementSchemaGenerator generator = new ElementSchemaGenerator(processingEnv.getTypeUtils(), processingEnv.getElementUtils(),
+                    processProperties, processFields, sortSchemaProperties);
+
+            try {
+                ObjectNode precomputedSchema = JsonNodeFactory.instance.objectNode();
+                precomputedSchema.put(PrecomputedSchemas.PROCESS_PROPERTIES, processProperties);
+                precomputedSchema.put(PrecomputedSchemas.PROCESS_FIELDS, processFields);
+                precomputedSchema.put(PrecomputedSchemas.SORT_SCHEMA_PROPERTIES, sortSchemaProperties);
+                precomputedSchema.set(PrecomputedSchemas.SCHEMA, generator.generateSchema(typeElement));
+
+                writeSchema(typeElement, precomputedSchema);
+            } catch (UnsupportedTypeException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        format(Locale.ENGLISH, "No precomputed schema for %s: %s", typeElement.getQualifiedName(), e.getMessage()), element);
+            }
+        }
+        return false;
+    }
+
+    private boolean option(String name, boolean defaultValue) {
+        String value = processingEnv.getOptions().get(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    private void writeSchema(TypeElement typeElement, ObjectNode precomputedSchema) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    PrecomputedSchemas.resourceName(binaryName), typeElement);
+            try (OutputStream outputStream = resource.openOutputStream()) {
+                MAPPER.writeValue(outputStream, precomputedSchema);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    format(Locale.ENGLISH, "Could not write schema for %s: %s", typeElement.getQualifiedName(), e.getMessage()), typeElement);
+        }
+    }
+}
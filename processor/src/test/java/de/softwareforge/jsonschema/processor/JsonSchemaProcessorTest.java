@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.JsonSchemaGenerator;
+import de.softwareforge.jsonschema.JsonSchemaGeneratorBuilder;
+import de.softwareforge.jsonschema.PrecomputedSchemas;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+public class JsonSchemaProcessorTest {
+
+    @ClassRule
+    public static final TemporaryFolder TEMPORARY_FOLDER = new TemporaryFolder();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testPrecomputedSchemasMatchGenerator() throws Exception {
+        ClassLoader classLoader = compileFixtures();
+
+        JsonSchemaGenerator reflectionGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+        JsonSchemaGenerator precomputedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().usePrecomputedSchemas().build();
+
+        for (String name : ImmutableList.of("fixtures.Order", "fixtures.Item", "fixtures.Status")) {
+            Class<?> type = classLoader.loadClass(name);
+            JsonNode precomputedSchema = readPrecomputedSchema(classLoader, name);
+            assertNotNull(name, precomputedSchema);
+
+            JsonNode reflectionSchema = normalize(reflectionGenerator.generateSchema(type));
+            assertEquals(name, reflectionSchema, normalize(precomputedGenerator.generateSchema(type)));
+
+            ((ObjectNode) reflectionSchema).remove("$schema");
+            assertEquals(name, reflectionSchema, normalize(precomputedSchema.get(PrecomputedSchemas.SCHEMA)));
+        }
+    }
+
+    @Test
+    public void testGeneratorUsesPrecomputedSchema() throws Exception {
+        ClassLoader classLoader = compileFixtures();
+        Class<?> type = classLoader.loadClass("fixtures.Item");
+
+        // mark the precomputed schema with a title that reflection does not generate
+        Path resource = Paths.get(classLoader.getResource(PrecomputedSchemas.resourceName("fixtures.Item")).toURI());
+        ObjectNode precomputed = (ObjectNode) MAPPER.readTree(resource.toFile());
+        ((ObjectNode) precomputed.get(PrecomputedSchemas.SCHEMA)).put("title", "precomputed");
+        MAPPER.writeValue(resource.toFile(), precomputed);
+
+        JsonSchemaGenerator precomputedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().usePrecomputedSchemas().build();
+        assertEquals("precomputed", precomputedGenerator.generateSchema(type).path("title").asText());
+
+        JsonSchemaGenerator reflectionGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+        assertNotEquals("precomputed", reflectionGenerator.generateSchema(type).path("title").asText());
+    }
+
+    @Test
+    public void testUnsupportedTypes() throws Exception {
+        ClassLoader classLoader = compileFixtures();
+
+        // recursive type, enum with constant bodies, enum with toString(), generic type
+        for (String name : ImmutableList.of("fixtures.Category", "fixtures.Priority", "fixtures.Color", "fixtures.Container")) {
+            assertNull(name, readPrecomputedSchema(classLoader, name));
+        }
+
+        // the generator falls back to reflection
+        JsonSchemaGenerator precomputedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().usePrecomputedSchemas().build();
+        JsonNode schema = precomputedGenerator.generateSchema(classLoader.loadClass("fixtures.Color"));
+        assertEquals(MAPPER.readTree("[\"red\",\"green\"]"), schema.get("enum"));
+    }
+
+    @Test
+    public void testConfigurationMismatch() throws Exception {
+        ClassLoader classLoader = compileFixtures();
+        Class<?> type = classLoader.loadClass("fixtures.Item");
+
+        JsonSchemaGenerator fieldsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().processFields().usePrecomputedSchemas().build();
+        JsonNode schema = fieldsGenerator.generateSchema(type);
+
+        assertTrue(schema.get("properties").has("sku"));
+        assertNotEquals(normalize(readPrecomputedSchema(classLoader, "fixtures.Item").get(PrecomputedSchemas.SCHEMA)), normalize(schema));
+    }
+
+    @Test
+    public void testProcessorOptions() throws Exception {
+        ClassLoader classLoader = compileFixtures("-A" + JsonSchemaProcessor.OPTION_PROCESS_FIELDS + "=true",
+                "-A" + JsonSchemaProcessor.OPTION_SORT_SCHEMA_PROPERTIES + "=false");
+        Class<?> type = classLoader.loadClass("fixtures.Item");
+
+        JsonNode precomputed = readPrecomputedSchema(classLoader, "fixtures.Item");
+        assertTrue(precomputed.get(PrecomputedSchemas.PROCESS_FIELDS).asBoolean());
+        assertTrue(precomputed.get(PrecomputedSchemas.SCHEMA).get("properties").has("sku"));
+
+        JsonSchemaGenerator fieldsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().processFields().disableSortSchemaProperties().build();
+        ObjectNode reflectionSchema = (ObjectNode) normalize(fieldsGenerator.generateSchema(type));
+        reflectionSchema.remove("$schema");
+        assertEquals(reflectionSchema, normalize(precomputed.get(PrecomputedSchemas.SCHEMA)));
+    }
+
+    private static ClassLoader compileFixtures(String... options) throws IOException, URISyntaxException {
+        Path fixtures = Paths.get(JsonSchemaProcessorTest.class.getResource("/fixtures").toURI());
+        List<File> sources;
+        try (Stream<Path> paths = Files.walk(fixtures)) {
+            sources = paths.filter(path -> path.toString().endsWith(".java")).map(Path::toFile).collect(Collectors.toList());
+        }
+
+        File output = TEMPORARY_FOLDER.newFolder();
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(sources);
+            List<String> compilerOptions = ImmutableList.<String>builder()
+                    .add("-classpath", System.getProperty("java.class.path"))
+                    .add("-d", output.getAbsolutePath())
+                    .add(options)
+                    .build();
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, compilerOptions, null, compilationUnits);
+            task.setProcessors(ImmutableList.of(new JsonSchemaProcessor()));
+            boolean success = task.call();
+            assertTrue(diagnostics.getDiagnostics().toString(), success);
+        }
+
+        return new URLClassLoader(new URL[]{output.toURI().toURL()}, JsonSchemaProcessorTest.class.getClassLoader());
+    }
+
+    private static JsonNode readPrecomputedSchema(ClassLoader classLoader, String name) throws IOException {
+        try (InputStream in = classLoader.getResourceAsStream(PrecomputedSchemas.resourceName(name))) {
+            return in == null ? null : MAPPER.readTree(in);
+        }
+    }
+
+    // reflection does not guarantee the order of declared members, so the order of required properties may differ.
+    private static JsonNode normalize(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode result = MAPPER.createObjectNode();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                if (field.getKey().equals("required") && field.getValue().isArray()) {
+                    ArrayNode required = result.putArray("required");
+                    TreeSet<String> names = new TreeSet<>();
+                    field.getValue().forEach(name -> names.add(name.asText()));
+                    names.forEach(required::add);
+                } else {
+                    result.set(field.getKey(), normalize(field.getValue()));
+                }
+            }
+            return result;
+        } else if (node.isArray()) {
+            ArrayNode result = MAPPER.createArrayNode();
+            node.forEach(element -> result.add(normalize(element)));
+            return result;
+        }
+        return node;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fixtures;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+
+import java.util.UUID;
+
+@JsonSchema(description = "An order item")
+public class Item {
+
+    @JsonSchema(minimum = 1)
+    public int quantity;
+
+    @JsonProperty(required = true)
+    public UUID sku;
+
+    @JsonSchema
+    public transient String cached;
+
+    @JsonSchema
+    public static String DEFAULT_SKU;
+
+    @JsonSchema(maximum = 100)
+    public int getDiscount() {
+        return 0;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fixtures;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.annotations.Nullable;
+import de.softwareforge.jsonschema.annotations.SchemaIgnore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@JsonSchema(title = "Order", description = "An order", additionalProperties = false)
+public class Order extends Entity implements Auditable {
+
+    @JsonProperty(required = true)
+    public long getId() {
+        return 0L;
+    }
+
+    @JsonSchema(minLength = 1, maxLength = 40)
+    public String getCustomer() {
+        return null;
+    }
+
+    @JsonSchema(minItems = 1, uniqueItems = true)
+    public Set<String> getTags() {
+        return null;
+    }
+
+    @JsonSchema
+    public List<Item> getItems() {
+        return null;
+    }
+
+    @JsonSchema
+    public Status getStatus() {
+        return null;
+    }
+
+    @Nullable
+    public Status getPreviousStatus() {
+        return null;
+    }
+
+    @JsonSchema
+    public Optional<Integer> getPriority() {
+        return Optional.empty();
+    }
+
+    @JsonSchema(format = "currency")
+    public BigDecimal getTotal() {
+        return null;
+    }
+
+    @Nullable
+    @JsonProperty("delivery")
+    public LocalDate getDeliveryDate() {
+        return null;
+    }
+
+    @JsonSchema
+    public boolean isExpress() {
+        return false;
+    }
+
+    @JsonSchema
+    public Map<String, String> getAttributes() {
+        return null;
+    }
+
+    @JsonSchema
+    public Pair<String, Item> getFirst() {
+        return null;
+    }
+
+    @JsonSchema
+    public Item[] getItemArray() {
+        return null;
+    }
+
+    @JsonSchema(enums = {"small", "large"})
+    public Size getSize() {
+        return null;
+    }
+
+    @SchemaIgnore
+    @JsonProperty(required = true)
+    public String getInternal() {
+        return null;
+    }
+
+    @JsonSchema
+    public String summary() {
+        return null;
+    }
+
+    @JsonSchema
+    public void setNote(String note) {
+    }
+
+    @Override
+    public Instant getModified() {
+        return null;
+    }
+}
@@ -90,6 +90,8 @@ public abstract class AttributeHolder {
                 .nullable(false);
     }
 
+    public abstract Builder toBuilder();
+
     public abstract Optional<String> $ref();
 
     public abstract Optional<String> id();
@@ -140,22 +142,34 @@ public abstract class AttributeHolder {
 
     public abstract Optional<String> type();
 
-    void augmentCommonAttributes(ObjectNode node) {
-        id().ifPresent(id -> node.put("id", id));
+    /**
+     * Adds the attributes to a schema, using the keywords of a json schema draft. The annotation processor renders precomputed
+     * schemas with this method as well, so they match the schemas that the generator creates.
+     */
+    public void augmentCommonAttributes(ObjectNode node, SchemaDraft draft) {
+        checkNotNull(draft, "draft is null");
+
+        id().ifPresent(id -> node.put(draft.idKeyword(), id));
         description().ifPresent(description -> node.put("description", description));
         pattern().ifPresent(pattern -> node.put("pattern", pattern));
         format().ifPresent(format -> node.put("format", format));
         title().ifPresent(title -> node.put("title", title));
-        maximum().ifPresent(maximum -> node.put("maximum", maximum));
-
-        if (exclusiveMaximum()) {
-            node.put("exclusiveMaximum", true);
-        }
+        if (draft.numericExclusiveBounds()) {
+            // an exclusive bound replaces the inclusive one, exclusive flags without a bound mean nothing.
+            maximum().ifPresent(maximum -> node.put(exclusiveMaximum() ? "exclusiveMaximum" : "maximum", maximum));
+            minimum().ifPresent(minimum -> node.put(exclusiveMinimum() ? "exclusiveMinimum" : "minimum", minimum));
+        } else {
+            maximum().ifPresent(maximum -> node.put("maximum", maximum));
+
+            if (exclusiveMaximum()) {
+                node.put("exclusiveMaximum", true);
+            }
 
-        minimum().ifPresent(minimum -> node.put("minimum", minimum));
+            minimum().ifPresent(minimum -> node.put("minimum", minimum));
 
-        if (exclusiveMinimum()) {
-            node.put("exclusiveMinimum", true);
+            if (exclusiveMinimum()) {
+                node.put("exclusiveMinimum", true);
+            }
         }
 
         if (!enums().isEmpty()) {
@@ -176,7 +190,7 @@ public abstract class AttributeHolder {
         maxLength().ifPresent(maxLength -> node.put("maxLength", maxLength));
 
         if (readonly()) {
-            node.put("readonly", true);
+            node.put(draft.readOnlyKeyword(), true);
         }
     }
 
@@ -236,6 +250,8 @@ public abstract class AttributeHolder {
 
         public abstract Builder named(String name);
 
+        public abstract Builder named(Optional<String> name);
+
         public abstract Builder type(String type);
 
         public abstract AttributeHolder build();
@@ -0,0 +1,321 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link CompiledSchema} together with the accessors for the java type that it was generated from. Validates java objects
+ * directly, without serializing them.
+ * <p>
+ * Properties are read with the method handles from {@link ClassMetadata#accessor(AccessibleObject)}. A property that is null
+ * counts as missing, unless its schema allows null.
+ */
+final class BoundSchema {
+
+    private enum Kind {
+        VALUE, ARRAY, OBJECT
+    }
+
+    private final CompiledSchema schema;
+    private final Kind kind;
+
+    // all fields below are set while the schema is bound and never change afterwards.
+    private BoundSchema items = null;
+    private ImmutableList<BoundProperty> properties = ImmutableList.of();
+    // arrays and objects that must match a reference as well. Values are validated with the reference of their compiled schema.
+    private BoundSchema reference = null;
+
+    private BoundSchema(CompiledSchema schema, Kind kind) {
+        this.schema = schema;
+        this.kind = kind;
+    }
+
+    /**
+     * Binds a compiled schema to the type that it was generated from.
+     */
+    static BoundSchema bind(Type type, CompiledSchema schema, JsonSchemaGeneratorConfiguration config) {
+        return new Binder(config).bind(type, schema);
+    }
+
+    /**
+     * Validates a value that is not null.
+     *
+     * @param path   The location of the value. Null if errors are not collected.
+     * @param errors Receives all errors. If null, validation stops at the first error.
+     * @return True if the value is valid.
+     */
+    boolean validate(Object value, InstancePath path, List<ValidationError> errors) {
+        if (reference != null) {
+            boolean valid = reference.validate(value, path, errors);
+            if (!valid && errors == null) {
+                return false;
+            }
+            return validateKeywords(value, path, errors) && valid;
+        }
+        return validateKeywords(value, path, errors);
+    }
+
+    private boolean validateKeywords(Object value, InstancePath path, List<ValidationError> errors) {
+        switch (kind) {
+            case ARRAY:
+                return validateArray(value, path, errors);
+            case OBJECT:
+                return validateObject(value, path, errors);
+            default:
+                if ((value instanceof Double || value instanceof Float) && !Double.isFinite(((Number) value).doubleValue())) {
+                    return CompiledSchema.report(errors, path, "type", "%s is not a json number", value);
+                }
+                return schema.validate(valueNode(value), path, errors);
+        }
+    }
+
+    private boolean validateArray(Object value, InstancePath path, List<ValidationError> errors) {
+        if (!schema.allows(InstanceType.ARRAY)) {
+            return schema.reportType(InstanceType.ARRAY, path, errors);
+        }
+
+        List<Object> elements = elements(value);
+        boolean valid = schema.validateItemCount(elements.size(), path, errors);
+        if (!valid && errors == null) {
+            return false;
+        }
+
+        Set<Object> seen = schema.uniqueItems ? new HashSet<>() : null;
+        for (int i = 0; i < elements.size(); i++) {
+            Object element = unwrap(elements.get(i));
+            if (seen != null && !seen.add(items.kind == Kind.VALUE && element != null ? CompiledSchema.normalize(valueNode(element)) : element)) {
+                valid = CompiledSchema.report(errors, path, "uniqueItems", "%s is not unique", element);
+            } else if (element == null) {
+                // serialized as null
+                valid &= items.schema.validate(NullNode.getInstance(), child(path, i), errors);
+            } else {
+                valid &= items.validate(element, child(path, i), errors);
+            }
+
+            if (!valid && errors == null) {
+                return false;
+            }
+        }
+        return valid;
+    }
+
+    private boolean validateObject(Object value, InstancePath path, List<ValidationError> errors) {
+        if (!schema.allows(InstanceType.OBJECT)) {
+            return schema.reportType(InstanceType.OBJECT, path, errors);
+        }
+
+        boolean valid = true;
+        for (BoundProperty property : properties) {
+            Object propertyValue = unwrap(property.read(value));
+            if (propertyValue != null) {
+                valid &= property.schema.validate(propertyValue, child(path, property.name), errors);
+            } else if (property.nullable) {
+                // serialized as null. Other null properties are missing, even if their schema allows null, e.g. enums without a type
+                valid &= property.schema.schema.validate(NullNode.getInstance(), child(path, property.name), errors);
+            } else if (property.required) {
+                valid = CompiledSchema.report(errors, path, "required", "property '%s' is missing", property.name);
+            }
+
+            if (!valid && errors == null) {
+                return false;
+            }
+        }
+        return valid;
+    }
+
+    private static List<Object> elements(Object value) {
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(Array.get(value, i));
+            }
+            return elements;
+        }
+
+        List<Object> elements = new ArrayList<>();
+        ((Iterable<?>) value).forEach(elements::add);
+        return elements;
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof Optional ? ((Optional<?>) value).orElse(null) : value;
+    }
+
+    /**
+     * Returns the json value of a java value that the generator describes with a simple type or as an enum.
+     */
+    private static JsonNode valueNode(Object value) {
+        if (value instanceof Boolean) {
+            return BooleanNode.valueOf((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return IntNode.valueOf(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            return LongNode.valueOf((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return DoubleNode.valueOf(((Number) value).doubleValue());
+        } else if (value instanceof BigInteger) {
+            return BigIntegerNode.valueOf((BigInteger) value);
+        } else if (value instanceof BigDecimal) {
+            return DecimalNode.valueOf((BigDecimal) value);
+        } else if (value instanceof Number) {
+            return DecimalNode.valueOf(new BigDecimal(value.toString()));
+        } else if (value instanceof Enum) {
+            // the same value as in the enum of the schema
+            Enum<?> constant = (Enum<?>) value;
+            return valueNode(ClassMetadata.forClass(constant.getDeclaringClass()).enumValues().get(constant.ordinal()));
+        } else {
+            // strings, characters, dates, uris, ...
+            return TextNode.valueOf(value.toString());
+        }
+    }
+
+    private static InstancePath child(InstancePath path, String name) {
+        return path == null ? null : path.child(name);
+    }
+
+    private static InstancePath child(InstancePath path, int index) {
+        return path == null ? null : path.child(index);
+    }
+
+    private static final class BoundProperty {
+
+        private final String name;
+        private final MethodHandle accessor;
+        private final BoundSchema schema;
+        private final boolean required;
+        private final boolean nullable;
+
+        private BoundProperty(String name, MethodHandle accessor, BoundSchema schema, boolean required, boolean nullable) {
+            this.name = name;
+            this.accessor = accessor;
+            this.schema = schema;
+            this.required = required;
+            this.nullable = nullable;
+        }
+
+        private Object read(Object value) {
+            try {
+                return (Object) accessor.invokeExact(value);
+            } catch (Throwable e) {
+                Throwables.throwIfUnchecked(e);
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Finds the accessors in the same way as the {@link JsonSchemaGenerator} finds the properties.
+     */
+    private static final class Binder {
+
+        private final JsonSchemaGeneratorConfiguration config;
+
+        // with definitions, a type and its schema may be bound more than once.
+        private final Map<Map.Entry<Type, CompiledSchema>, BoundSchema> boundSchemas = new HashMap<>();
+
+        private Binder(JsonSchemaGeneratorConfiguration config) {
+            this.config = config;
+        }
+
+        private BoundSchema bind(Type type, CompiledSchema schema) {
+            Map.Entry<Type, CompiledSchema> key = Maps.immutableEntry(type, schema);
+            BoundSchema boundSchema = boundSchemas.get(key);
+            if (boundSchema != null) {
+                return boundSchema;
+            }
+
+            // same kinds as the generator uses, see TypeKind.
+            TypeModel model = TypeModel.of(type);
+            switch (model.kind()) {
+                case COLLECTION:
+                    boundSchema = new BoundSchema(schema, Kind.ARRAY);
+                    boundSchemas.put(key, boundSchema);
+                    boundSchema.items = bind(model.itemType().get(), schema.items == null ? CompiledSchema.ANY : schema.items);
+                    break;
+                case MAP:
+                case BEAN:
+                    boundSchema = new BoundSchema(schema, Kind.OBJECT);
+                    boundSchemas.put(key, boundSchema);
+                    boundSchema.properties = bindProperties(model, schema);
+                    break;
+                default:
+                    // simple types, optional simple types, enums and void
+                    boundSchema = new BoundSchema(schema, Kind.VALUE);
+                    boundSchemas.put(key, boundSchema);
+                    break;
+            }
+
+            if (boundSchema.kind != Kind.VALUE && schema.reference != null) {
+                boundSchema.reference = bind(type, schema.reference);
+            }
+            return boundSchema;
+        }
+
+        private ImmutableList<BoundProperty> bindProperties(TypeModel model, CompiledSchema schema) {
+            ImmutableList.Builder<BoundProperty> properties = ImmutableList.builder();
+            if (config.processProperties()) {
+                model.methodProperties().forEach(property -> bindProperty(property, schema).ifPresent(properties::add));
+            }
+            if (config.processFields()) {
+                model.fieldProperties().forEach(property -> bindProperty(property, schema).ifPresent(properties::add));
+            }
+            return properties.build();
+        }
+
+        private Optional<BoundProperty> bindProperty(TypeModel.Property property, CompiledSchema schema) {
+            if (property.attributes().ignored()) {
+                return Optional.empty();
+            }
+
+            CompiledSchema propertySchema = schema.properties.get(property.name());
+            Optional<MethodHandle> accessor = ClassMetadata.forClass(property.member().getDeclaringClass())
+                    .accessor((AccessibleObject) property.member());
+            if (propertySchema == null || !accessor.isPresent()) {
+                // e.g. setters
+                return Optional.empty();
+            }
+
+            return Optional.of(new BoundProperty(property.name(), accessor.get(), bind(property.type(), propertySchema),
+                    schema.required.contains(property.name()), property.attributes().nullable()));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The canonical form of a schema: the json bytes with all object keys sorted and without any whitespace, together with a content
+ * fingerprint. Equal schemas always have the same bytes and fingerprint, so the fingerprint can be used as a strong ETag.
+ * <p>
+ * Fingerprints are computed as a Merkle tree: the fingerprint of an object or array is the hash of the fingerprints of its members,
+ * and {@link #fingerprint(String)} returns the fingerprint of every nested object. A subschema keeps its fingerprint as long as its
+ * content does not change, no matter what changes around it.
+ * <p>
+ * Instances are immutable. {@link JsonSchemaGenerator#generateCanonicalSchema(Class)} caches them together with the schema.
+ */
+public final class CanonicalSchema {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+    // provides the serializers for value nodes, e.g. a POJONode from a custom node factory.
+    private static final ObjectMapper SERIALIZER_MAPPER = new ObjectMapper();
+
+    private final byte[] bytes;
+    private final ImmutableMap<String, HashCode> fingerprints;
+    private final HashCode fingerprint;
+    private final String etag;
+
+    private CanonicalSchema(byte[] bytes, ImmutableMap<String, HashCode> fingerprints) {
+        this.bytes = bytes;
+        this.fingerprints = fingerprints;
+        this.fingerprint = fingerprints.get("");
+        this.etag = '"' + fingerprint.toString() + '"';
+    }
+
+    /**
+     * Creates the canonical form of a schema.
+     */
+    public static CanonicalSchema of(ObjectNode schema) {
+        checkNotNull(schema, "schema is null");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImmutableMap.Builder<String, HashCode> fingerprints = ImmutableMap.builder();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            write(schema, "", generator, SERIALIZER_MAPPER.getSerializerProviderInstance(), fingerprints);
+        } catch (IOException e) {
+            // writes to memory
+            throw new UncheckedIOException(e);
+        }
+        return new CanonicalSchema(out.toByteArray(), fingerprints.build());
+    }
+
+    /**
+     * The number of bytes of the canonical form.
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * The canonical form as UTF-8 encoded json. The buffer is read-only and shares the bytes with this instance.
+     */
+    public ByteBuffer bytes() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the canonical form to a stream. The stream is not closed.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream, "outputStream is null");
+        outputStream.write(bytes);
+    }
+
+    /**
+     * The fingerprint of the schema, a SHA-256 Merkle hash over all of its content.
+     */
+    public HashCode fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * The fingerprint of an object within the schema, e.g. {@code /properties/address} for the subschema of a property.
+     *
+     * @param pointer A json pointer (RFC 6901). The root is the empty string.
+     * @return The fingerprint, absent if the pointer does not point to an object.
+     */
+    public Optional<HashCode> fingerprint(String pointer) {
+        checkNotNull(pointer, "pointer is null");
+        return Optional.ofNullable(fingerprints.get(pointer));
+    }
+
+    /**
+     * The fingerprint as a strong HTTP entity tag, including the quotes.
+     */
+    public String etag() {
+        return etag;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        // the fingerprint covers all bytes
+        return fingerprint.equals(((CanonicalSchema) o).fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return fingerprint.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, UTF_8);
+    }
+
+    private static HashCode write(JsonNode node, String pointer, JsonGenerator generator, SerializerProvider provider,
+            ImmutableMap.Builder<String, HashCode> fingerprints) throws IOException {
+        if (node.isObject()) {
+            Hasher hasher = HASH_FUNCTION.newHasher().putByte((byte) '{');
+            generator.writeStartObject();
+            // Strings compare by UTF-16 code units, as in the JSON canonicalization scheme (RFC 8785)
+            List<String> fieldNames = Ordering.natural().sortedCopy(node::fieldNames);
+            for (String fieldName : fieldNames) {
+                generator.writeFieldName(fieldName);
+                String childPointer = pointer + '/' + fieldName.replace("~", "~0").replace("/", "~1");
+                HashCode child = write(node.get(fieldName), childPointer, generator, provider, fingerprints);
+                byte[] name = fieldName.getBytes(UTF_8);
+                hasher.putInt(name.length).putBytes(name).putBytes(child.asBytes());
+            }
+            generator.writeEndObject();
+
+            HashCode hash = hasher.hash();
+            fingerprints.put(pointer, hash);
+            return hash;
+        } else if (node.isArray()) {
+            Hasher hasher = HASH_FUNCTION.newHasher().putByte((byte) '[');
+            generator.writeStartArray();
+            for (int i = 0; i < node.size(); i++) {
+                hasher.putBytes(write(node.get(i), pointer + '/' + i, generator, provider, fingerprints).asBytes());
+            }
+            generator.writeEndArray();
+            return hasher.hash();
+        } else {
+            if (node.isNull()) {
+                generator.writeNull();
+            } else {
+                ((JsonSerializable) node).serialize(generator, provider);
+            }
+            return HASH_FUNCTION.newHasher().putByte((byte) 'v').putString(node.toString(), UTF_8).hash();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache for values that belong to classes. Classes are held weakly and partitioned by their class loader, so the entries of an
+ * undeployed application are collected together with its class loader, and all entries of a class loader can be dropped at once.
+ * <p>
+ * Values that reference their class or its class loader are only collected with the cache or by {@link #invalidate(ClassLoader)}.
+ */
+final class ClassCache<V> {
+
+    private static final long UNBOUNDED = -1L;
+
+    private final long maximumSize;
+
+    // weak keys compare class loaders by identity
+    private final LoadingCache<ClassLoader, Cache<Class<?>, V>> partitions;
+
+    // classes of the bootstrap class loader are never unloaded
+    private final Cache<Class<?>, V> bootstrapPartition;
+
+    /**
+     * A cache that keeps at most {@code maximumSize} entries for every class loader.
+     */
+    ClassCache(long maximumSize) {
+        this.maximumSize = maximumSize;
+        this.partitions = CacheBuilder.newBuilder()
+                .weakKeys()
+                .build(CacheLoader.from(classLoader -> newPartition()));
+        this.bootstrapPartition = newPartition();
+    }
+
+    static <V> ClassCache<V> unbounded() {
+        return new ClassCache<>(UNBOUNDED);
+    }
+
+    private Cache<Class<?>, V> newPartition() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().weakKeys();
+        if (maximumSize != UNBOUNDED) {
+            builder.maximumSize(maximumSize);
+        }
+        return builder.build();
+    }
+
+    V getIfPresent(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        Cache<Class<?>, V> partition = classLoader == null ? bootstrapPartition : partitions.getIfPresent(classLoader);
+        return partition == null ? null : partition.getIfPresent(type);
+    }
+
+    /**
+     * @see Cache#get(Object, Callable)
+     */
+    V get(Class<?> type, Callable<? extends V> valueLoader) throws ExecutionException {
+        return partition(type).get(type, valueLoader);
+    }
+
+    void put(Class<?> type, V value) {
+        partition(type).put(type, value);
+    }
+
+    void invalidateAll() {
+        bootstrapPartition.invalidateAll();
+        partitions.invalidateAll();
+    }
+
+    /**
+     * Drops the entries of all classes that were loaded by a class loader or by one of its descendants, e.g. the class loaders of
+     * the web applications in a container.
+     *
+     * @return The classes whose entries were dropped.
+     */
+    ImmutableSet<Class<?>> invalidate(ClassLoader classLoader) {
+        checkNotNull(classLoader, "classLoader is null");
+
+        ImmutableSet.Builder<Class<?>> classes = ImmutableSet.builder();
+        for (Iterator<Map.Entry<ClassLoader, Cache<Class<?>, V>>> it = partitions.asMap().entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<ClassLoader, Cache<Class<?>, V>> partition = it.next();
+            if (isSameOrDescendant(partition.getKey(), classLoader)) {
+                classes.addAll(partition.getValue().asMap().keySet());
+                it.remove();
+            }
+        }
+        return classes.build();
+    }
+
+    private Cache<Class<?>, V> partition(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        return classLoader == null ? bootstrapPartition : partitions.getUnchecked(classLoader);
+    }
+
+    /**
+     * True if a class loader is the given ancestor or one of its descendants. The bootstrap class loader ({@code null}) has no
+     * ancestors.
+     */
+    static boolean isSameOrDescendant(ClassLoader classLoader, ClassLoader ancestor) {
+        for (ClassLoader current = classLoader; current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Annotation metadata for a single class. Resolves the annotations on the class itself and on all of its
+ * declared methods and fields exactly once and keeps the results for the lifetime of the class, or of this library for classes
+ * that this library can not see, e.g. the classes of the JDK.
+ */
+final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            CLASSES.put(type, Boolean.TRUE);
+            return new ClassMetadata(type);
+        }
+    };
+
+    // The classes that have metadata. A ClassValue keeps its values with the class, but can not list them by class loader.
+    private static final ClassCache<Boolean> CLASSES = ClassCache.unbounded();
+
+    // A ClassValue of a class that outlives this library, e.g. String, would keep the metadata and with it the class loader of
+    // this library alive (JDK-8136353). The metadata of these classes is cached here instead, which is collected with this library.
+    private static final ClassCache<ClassMetadata> FOREIGN_METADATA = ClassCache.unbounded();
+
+    private static final ClassLoader LIBRARY_CLASS_LOADER = ClassMetadata.class.getClassLoader();
+
+    // The JVM returns the declared members in no particular order, which can differ between runs. Members are ordered by name, so
+    // that the properties and the required properties of a schema are always generated in the same order.
+    private static final Ordering<Method> METHOD_ORDER = Ordering.natural().onResultOf(Method::getName)
+            .compound(Ordering.usingToString());
+    private static final Ordering<Field> FIELD_ORDER = Ordering.natural().onResultOf(Field::getName);
+
+    private final Optional<AttributeHolder> attributes;
+    private final Supplier<ImmutableMap<Method, AttributeHolder>> methods;
+    private final Supplier<ImmutableMap<Field, AttributeHolder>> fields;
+    private final Supplier<ImmutableMap<Method, String>> propertyNames;
+    private final Supplier<Optional<HashCode>> fingerprint;
+    private final Supplier<ImmutableMap<AccessibleObject, MethodHandle>> accessors;
+    private final Supplier<ImmutableList<Object>> enumValues;
+    private final TypeKind kind;
+    private final Supplier<TypeModel> model;
+
+    static ClassMetadata forClass(Class<?> clazz) {
+        checkNotNull(clazz, "clazz is null");
+
+        if (LIBRARY_CLASS_LOADER == null || ClassCache.isSameOrDescendant(clazz.getClassLoader(), LIBRARY_CLASS_LOADER)) {
+            return METADATA.get(clazz);
+        }
+
+        try {
+            return FOREIGN_METADATA.get(clazz, () -> new ClassMetadata(clazz));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops the metadata of all classes that were loaded by a class loader or one of its descendants. The metadata of a class that is
+     * no longer reachable is collected with the class, this only makes it happen right away.
+     */
+    static void invalidate(ClassLoader classLoader) {
+        CLASSES.invalidate(classLoader).forEach(METADATA::remove);
+        FOREIGN_METADATA.invalidate(classLoader);
+    }
+
+    private ClassMetadata(Class<?> clazz) {
+        this.attributes = AttributeHolder.locate(clazz);
+        this.methods = Suppliers.memoize(() -> locateMethods(clazz));
+        this.fields = Suppliers.memoize(() -> locateFields(clazz));
+        this.propertyNames = Suppliers.memoize(() -> locatePropertyNames(methods().keySet()));
+        this.fingerprint = Suppliers.memoize(() -> computeFingerprint(clazz));
+        this.accessors = Suppliers.memoize(() -> createAccessors(methods().keySet(), fields().keySet()));
+        this.enumValues = Suppliers.memoize(() -> classifyEnumConstants(clazz));
+        this.kind = TypeKind.classify(clazz);
+        this.model = Suppliers.memoize(() -> new TypeModel(clazz));
+    }
+
+    /**
+     * Attributes of the class itself.
+     */
+    Optional<AttributeHolder> attributes() {
+        return attributes;
+    }
+
+    /**
+     * All declared methods that carry schema annotations, in declaration order.
+     */
+    ImmutableMap<Method, AttributeHolder> methods() {
+        return methods.get();
+    }
+
+    /**
+     * All declared fields that carry schema annotations, in declaration order.
+     */
+    ImmutableMap<Field, AttributeHolder> fields() {
+        return fields.get();
+    }
+
+    /**
+     * The bean property name of a method returned by {@link #methods()}. Follows the naming rules of the
+     * {@link Introspector} but does not use it, so no global locks are taken and every method is examined
+     * only once.
+     */
+    Optional<String> propertyName(Method method) {
+        return Optional.ofNullable(propertyNames.get().get(method));
+    }
+
+    /**
+     * A hash of the byte code of the class. Absent for classes whose byte code is not available from their class loader, e.g. system
+     * classes or classes generated at runtime.
+     */
+    Optional<HashCode> fingerprint() {
+        return fingerprint.get();
+    }
+
+    /**
+     * A method handle that reads the value of a field or getter returned by {@link #fields()} or {@link #methods()}. The handle
+     * has the type {@code (Object)Object}. Absent for methods that are not getters, i.e. that have parameters or return nothing.
+     */
+    Optional<MethodHandle> accessor(AccessibleObject member) {
+        return Optional.ofNullable(accessors.get().get(member));
+    }
+
+    /**
+     * The values of the constants of an enum class in declaration order, as they appear in the {@code enum} of its schema. A value is a
+     * {@link Long} or a {@link BigDecimal} if the {@code toString()} value of the constant is a number, otherwise it is that string.
+     * Empty for classes that are no enums.
+     */
+    ImmutableList<Object> enumValues() {
+        return enumValues.get();
+    }
+
+    /**
+     * The kind of the class.
+     */
+    TypeKind kind() {
+        return kind;
+    }
+
+    /**
+     * The schema model of the class, shared by all generators.
+     *
+     * @see TypeModel#of(java.lang.reflect.Type)
+     */
+    TypeModel model() {
+        return model.get();
+    }
+
+    private static ImmutableList<Object> classifyEnumConstants(Class<?> clazz) {
+        Object[] constants = clazz.getEnumConstants();
+        if (constants == null) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<Object> builder = ImmutableList.builder();
+        for (Object constant : constants) {
+            builder.add(enumValue(constant.toString()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Classifies the string value of an enum constant. Accepts exactly the values that {@link Long#parseLong(String)} or
+     * {@link BigDecimal#BigDecimal(String)} accept, but never throws for values that are no numbers.
+     */
+    static Object enumValue(String value) {
+        Long longValue = parseLong(value);
+        if (longValue != null) {
+            return longValue;
+        }
+        return isDecimal(value) ? new BigDecimal(value) : value;
+    }
+
+    // Long.parseLong() without the exceptions, accumulates negatively to cover Long.MIN_VALUE.
+    private static Long parseLong(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return null;
+        }
+
+        int i = 0;
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return null;
+            }
+            negative = first == '-';
+            limit = negative ? Long.MIN_VALUE : limit;
+            i++;
+        }
+
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return null;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // The grammar of new BigDecimal(String), including its limits for exponent and scale.
+    private static boolean isDecimal(String value) {
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (Character.digit(c, 10) >= 0) {
+                digits++;
+                fractionDigits += point ? 1 : 0;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        } else if (i == length) {
+            return true;
+        } else if (value.charAt(i) != 'e' && value.charAt(i) != 'E') {
+            return false;
+        }
+
+        i++;
+        boolean negativeExponent = false;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negativeExponent = value.charAt(i) == '-';
+            i++;
+        }
+        if (i == length) {
+            return false;
+        }
+
+        long exponent = 0;
+        int exponentDigits = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0) {
+                return false;
+            }
+            // leading zeros do not count, at most ten significant digits
+            if ((exponent != 0 || digit != 0) && ++exponentDigits > 10) {
+                return false;
+            }
+            exponent = exponent * 10 + digit;
+        }
+
+        long scale = fractionDigits - (negativeExponent ? -exponent : exponent);
+        return scale >= Integer.MIN_VALUE && scale <= Integer.MAX_VALUE;
+    }
+
+    private static ImmutableMap<AccessibleObject, MethodHandle> createAccessors(Iterable<Method> methods, Iterable<Field> fields) {
+        MethodType accessorType = MethodType.methodType(Object.class, Object.class);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        ImmutableMap.Builder<AccessibleObject, MethodHandle> builder = ImmutableMap.builder();
+        try {
+            for (Method method : methods) {
+                if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+                    method.setAccessible(true);
+                    builder.put(method, lookup.unreflect(method).asType(accessorType));
+                }
+            }
+            for (Field field : fields) {
+                field.setAccessible(true);
+                builder.put(field, lookup.unreflectGetter(field).asType(accessorType));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return builder.build();
+    }
+
+    private static Optional<HashCode> computeFingerprint(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null || clazz.isArray() || clazz.isPrimitive()) {
+            return Optional.empty();
+        }
+
+        try (InputStream in = classLoader.getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            if (in == null) {
+                return Optional.empty();
+            }
+            return Optional.of(Hashing.sha256().hashBytes(ByteStreams.toByteArray(in)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ImmutableMap<Method, String> locatePropertyNames(Iterable<Method> methods) {
+        ImmutableMap.Builder<Method, String> builder = ImmutableMap.builder();
+        for (Method method : methods) {
+            beanPropertyName(method).ifPresent(name -> builder.put(method, name));
+        }
+        return builder.build();
+    }
+
+    private static Optional<String> beanPropertyName(Method method) {
+        // the introspector only considers public methods
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return Optional.empty();
+        }
+
+        String name = method.getName();
+        Class<?> returnType = method.getReturnType();
+
+        switch (method.getParameterCount()) {
+            case 0:
+                if (returnType == boolean.class && name.length() > 2 && name.startsWith("is")) {
+                    return Optional.of(Introspector.decapitalize(name.substring(2)));
+                } else if (returnType != void.class && name.length() > 3 && name.startsWith("get")) {
+                    return Optional.of(Introspector.decapitalize(name.substring(3)));
+                }
+                break;
+            case 1:
+                if (returnType == void.class && name.length() > 3 && name.startsWith("set")) {
+                    return Optional.of(Introspector.decapitalize(name.substring(3)));
+                }
+                break;
+            default:
+                break;
+        }
+        return Optional.empty();
+    }
+
+    private static ImmutableMap<Method, AttributeHolder> locateMethods(Class<?> clazz) {
+        ImmutableMap.Builder<Method, AttributeHolder> builder = ImmutableMap.builder();
+        for (Method method : METHOD_ORDER.sortedCopy(Arrays.asList(clazz.getDeclaredMethods()))) {
+            acceptMethod(method).ifPresent(attributes -> builder.put(method, attributes));
+        }
+        return builder.build();
+    }
+
+    private static ImmutableMap<Field, AttributeHolder> locateFields(Class<?> clazz) {
+        ImmutableMap.Builder<Field, AttributeHolder> builder = ImmutableMap.builder();
+        for (Field field : FIELD_ORDER.sortedCopy(Arrays.asList(clazz.getDeclaredFields()))) {
+            acceptField(field).ifPresent(attributes -> builder.put(field, attributes));
+        }
+        return builder.build();
+    }
+
+    private static Optional<AttributeHolder> acceptMethod(Method method) {
+        // ignore weird stuff
+        int modifiers = method.getModifiers();
+        if (method.isBridge()
+                || method.isSynthetic()
+                || method.isDefault()
+                || Modifier.isStatic(modifiers)) {
+            return Optional.empty();
+        }
+
+        // fetch annotations for method
+        return AttributeHolder.locate(method);
+    }
+
+    private static Optional<AttributeHolder> acceptField(Field field) {
+        // ignore weird stuff
+        int modifiers = field.getModifiers();
+        if (field.isEnumConstant()
+                || field.isSynthetic()
+                || Modifier.isTransient(modifiers)
+                || Modifier.isStatic(modifiers)) {
+            return Optional.empty();
+        }
+
+        // fetch annotations for field
+        return AttributeHolder.locate(field);
+    }
+}
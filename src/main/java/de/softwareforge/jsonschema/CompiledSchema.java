@@ -0,0 +1,519 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A schema whose keywords have been resolved into lookup structures by the {@link SchemaCompiler}. Validating a value only
+ * reads these fields.
+ * <p>
+ * All fields are set while the schema is compiled and never change afterwards.
+ */
+final class CompiledSchema {
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    // only used for the rare values that must be buffered while streaming.
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // allows every value.
+    static final CompiledSchema ANY = new CompiledSchema();
+
+    // null if all types are allowed. Contains INTEGER whenever it contains NUMBER.
+    Set<InstanceType> types = null;
+    String typeNames = null;
+
+    // normalized values, null if any value is allowed.
+    ImmutableSet<JsonNode> enums = null;
+
+    int minLength = 0;
+    int maxLength = Integer.MAX_VALUE;
+    Pattern pattern = null;
+
+    Bound minimum = null;
+    Bound maximum = null;
+    BigDecimal multipleOf = null;
+    long integralMultipleOf = 0L;
+
+    int minItems = 0;
+    int maxItems = Integer.MAX_VALUE;
+    boolean uniqueItems = false;
+    CompiledSchema items = null;
+
+    ImmutableMap<String, CompiledSchema> properties = ImmutableMap.of();
+    ImmutableList<String> required = ImmutableList.of();
+    // null if no additional properties are allowed.
+    CompiledSchema additionalProperties = null;
+    int minProperties = 0;
+    int maxProperties = Integer.MAX_VALUE;
+
+    // the schema of a $ref next to the other keywords (draft 2019-09 and later), which a value must match as well.
+    CompiledSchema reference = null;
+
+    /**
+     * Validates a value.
+     *
+     * @param path   The location of the value. Null if errors are not collected.
+     * @param errors Receives all errors. If null, validation stops at the first error.
+     * @return True if the value is valid.
+     */
+    boolean validate(JsonNode node, InstancePath path, List<ValidationError> errors) {
+        if (reference == null) {
+            return validateKeywords(node, path, errors);
+        }
+
+        boolean valid = reference.validate(node, path, errors);
+        if (!valid && errors == null) {
+            return false;
+        }
+        return validateKeywords(node, path, errors) && valid;
+    }
+
+    private boolean validateKeywords(JsonNode node, InstancePath path, List<ValidationError> errors) {
+        InstanceType type = InstanceType.of(node);
+        if (!allows(type) && !(type == InstanceType.NUMBER && allows(InstanceType.INTEGER) && InstanceType.isIntegralValue(node))) {
+            return reportType(type, path, errors);
+        }
+
+        boolean valid = true;
+        if (enums != null && !enums.contains(normalize(node))) {
+            valid = report(errors, path, "enum", "%s is not one of %s", node, enums);
+            if (errors == null) {
+                return false;
+            }
+        }
+
+        switch (type) {
+            case STRING:
+                return validateString(node.asText(), path, errors) && valid;
+            case INTEGER:
+            case NUMBER:
+                return validateNumber(node, path, errors) && valid;
+            case ARRAY:
+                return validateArray(node, path, errors) && valid;
+            case OBJECT:
+                return validateObject(node, path, errors) && valid;
+            default:
+                return valid;
+        }
+    }
+
+    /**
+     * Validates the value that starts at the current token of a parser. Afterwards, the parser is at the last token of the value,
+     * unless validation stopped at an error.
+     * <p>
+     * Only keeps the state of the enclosing objects and arrays. Values are buffered only if they must be compared to other
+     * values, i.e. objects and arrays with {@code enum} or {@code uniqueItems}, or validated twice, i.e. values of a schema with a
+     * reference next to other keywords.
+     *
+     * @param path   The location of the value. Null if errors are not collected.
+     * @param errors Receives all errors. If null, validation stops at the first error.
+     * @return True if the value is valid.
+     */
+    boolean validate(JsonParser parser, InstancePath path, List<ValidationError> errors) throws IOException {
+        if (this == ANY) {
+            parser.skipChildren();
+            return true;
+        }
+
+        JsonToken token = parser.getCurrentToken();
+        if (reference != null) {
+            return validate(token.isScalarValue() ? scalarNode(parser) : readTree(parser), path, errors);
+        }
+
+        switch (token) {
+            case START_OBJECT:
+                return validateObjectTokens(parser, path, errors);
+            case START_ARRAY:
+                return validateArrayTokens(parser, path, errors);
+            case VALUE_STRING:
+                if (enums == null && allows(InstanceType.STRING)) {
+                    return validateString(parser.getText(), path, errors);
+                }
+                return validate(TextNode.valueOf(parser.getText()), path, errors);
+            default:
+                return validate(scalarNode(parser), path, errors);
+        }
+    }
+
+    private boolean validateObjectTokens(JsonParser parser, InstancePath path, List<ValidationError> errors) throws IOException {
+        if (!allows(InstanceType.OBJECT)) {
+            parser.skipChildren();
+            return reportType(InstanceType.OBJECT, path, errors);
+        }
+        if (enums != null) {
+            return validate(readTree(parser), path, errors);
+        }
+
+        boolean valid = true;
+        Set<String> missing = required.isEmpty() ? null : new HashSet<>(required);
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+
+            // reported at the first property that is too many
+            if (size++ == maxProperties) {
+                valid = report(errors, path, "maxProperties", "more than %d properties", maxProperties);
+                if (errors == null) {
+                    return false;
+                }
+            }
+            if (missing != null) {
+                missing.remove(name);
+            }
+
+            CompiledSchema propertySchema = properties.get(name);
+            if (propertySchema == null) {
+                propertySchema = additionalProperties;
+            }
+
+            if (propertySchema == null) {
+                parser.skipChildren();
+                valid = report(errors, path, "additionalProperties", "property '%s' is not allowed", name);
+            } else if (!propertySchema.validate(parser, child(path, name), errors)) {
+                valid = false;
+            }
+
+            if (!valid && errors == null) {
+                return false;
+            }
+        }
+
+        if (size < minProperties) {
+            valid = report(errors, path, "minProperties", "%d properties are less than %d", size, minProperties);
+        }
+        for (String name : required) {
+            if (missing != null && missing.contains(name)) {
+                valid = report(errors, path, "required", "property '%s' is missing", name);
+            }
+        }
+        return valid;
+    }
+
+    private boolean validateArrayTokens(JsonParser parser, InstancePath path, List<ValidationError> errors) throws IOException {
+        if (!allows(InstanceType.ARRAY)) {
+            parser.skipChildren();
+            return reportType(InstanceType.ARRAY, path, errors);
+        }
+        if (enums != null) {
+            return validate(readTree(parser), path, errors);
+        }
+
+        boolean valid = true;
+        Set<JsonNode> seen = uniqueItems ? new HashSet<>() : null;
+        int size = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            InstancePath elementPath = child(path, size);
+            if (size++ == maxItems) {
+                valid = report(errors, path, "maxItems", "more than %d items", maxItems);
+                if (errors == null) {
+                    return false;
+                }
+            }
+
+            CompiledSchema itemSchema = items == null ? ANY : items;
+            if (seen != null) {
+                // unique items must be kept, so they are validated as trees.
+                JsonNode element = token.isScalarValue() ? scalarNode(parser) : readTree(parser);
+                if (!seen.add(normalize(element))) {
+                    valid = report(errors, path, "uniqueItems", "%s is not unique", element);
+                } else if (!itemSchema.validate(element, elementPath, errors)) {
+                    valid = false;
+                }
+            } else if (!itemSchema.validate(parser, elementPath, errors)) {
+                valid = false;
+            }
+
+            if (!valid && errors == null) {
+                return false;
+            }
+        }
+
+        if (size < minItems) {
+            valid = report(errors, path, "minItems", "%d items are less than %d", size, minItems);
+        }
+        return valid;
+    }
+
+    private static JsonNode readTree(JsonParser parser) throws IOException {
+        return MAPPER.readTree(parser);
+    }
+
+    private static JsonNode scalarNode(JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case VALUE_STRING:
+                return TextNode.valueOf(parser.getText());
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case INT:
+                        return IntNode.valueOf(parser.getIntValue());
+                    case LONG:
+                        return LongNode.valueOf(parser.getLongValue());
+                    default:
+                        return BigIntegerNode.valueOf(parser.getBigIntegerValue());
+                }
+            case VALUE_NUMBER_FLOAT:
+                // exact, so that multipleOf and enum work as for parsed trees with exact decimals.
+                return DecimalNode.valueOf(parser.getDecimalValue());
+            case VALUE_TRUE:
+                return BooleanNode.TRUE;
+            case VALUE_FALSE:
+                return BooleanNode.FALSE;
+            case VALUE_NULL:
+                return NullNode.getInstance();
+            default:
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "Unexpected token %s", parser.getCurrentToken()));
+        }
+    }
+
+    boolean allows(InstanceType type) {
+        return types == null || types.contains(type);
+    }
+
+    boolean reportType(InstanceType type, InstancePath path, List<ValidationError> errors) {
+        return report(errors, path, "type", "%s is not allowed, expected %s", type.schemaName(), typeNames);
+    }
+
+    private boolean validateString(String value, InstancePath path, List<ValidationError> errors) {
+        boolean valid = true;
+        if (minLength > 0 || maxLength < Integer.MAX_VALUE) {
+            int length = value.codePointCount(0, value.length());
+            if (length < minLength) {
+                valid = report(errors, path, "minLength", "length %d is less than %d", length, minLength);
+            } else if (length > maxLength) {
+                valid = report(errors, path, "maxLength", "length %d is greater than %d", length, maxLength);
+            }
+            if (!valid && errors == null) {
+                return false;
+            }
+        }
+
+        if (pattern != null && !pattern.matcher(value).find()) {
+            valid = report(errors, path, "pattern", "'%s' does not match '%s'", value, pattern.pattern());
+        }
+        return valid;
+    }
+
+    private boolean validateNumber(JsonNode value, InstancePath path, List<ValidationError> errors) {
+        boolean valid = true;
+        if (minimum != null && !minimum.isMinimumOf(value)) {
+            valid = report(errors, path, "minimum", "%s is less than %s%s", value, minimum.exclusive ? "or equal to " : "", minimum.value);
+        } else if (maximum != null && !maximum.isMaximumOf(value)) {
+            valid = report(errors, path, "maximum", "%s is greater than %s%s", value, maximum.exclusive ? "or equal to " : "", maximum.value);
+        }
+        if (!valid && errors == null) {
+            return false;
+        }
+
+        if (multipleOf != null && !isMultiple(value)) {
+            valid = report(errors, path, "multipleOf", "%s is not a multiple of %s", value, multipleOf);
+        }
+        return valid;
+    }
+
+    private boolean isMultiple(JsonNode value) {
+        if (integralMultipleOf != 0L && value.isIntegralNumber() && value.canConvertToLong()) {
+            return value.longValue() % integralMultipleOf == 0L;
+        }
+        return value.decimalValue().remainder(multipleOf).signum() == 0;
+    }
+
+    private boolean validateArray(JsonNode value, InstancePath path, List<ValidationError> errors) {
+        int size = value.size();
+        boolean valid = validateItemCount(size, path, errors);
+        if (!valid && errors == null) {
+            return false;
+        }
+
+        if (uniqueItems && size > 1) {
+            Set<JsonNode> seen = new HashSet<>(size * 2);
+            for (JsonNode element : value) {
+                if (!seen.add(normalize(element))) {
+                    valid = report(errors, path, "uniqueItems", "%s is not unique", element);
+                    if (errors == null) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (items != null) {
+            for (int i = 0; i < size; i++) {
+                if (!items.validate(value.get(i), child(path, i), errors)) {
+                    valid = false;
+                    if (errors == null) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return valid;
+    }
+
+    boolean validateItemCount(int size, InstancePath path, List<ValidationError> errors) {
+        if (size < minItems) {
+            return report(errors, path, "minItems", "%d items are less than %d", size, minItems);
+        } else if (size > maxItems) {
+            return report(errors, path, "maxItems", "%d items are more than %d", size, maxItems);
+        }
+        return true;
+    }
+
+    private boolean validateObject(JsonNode value, InstancePath path, List<ValidationError> errors) {
+        boolean valid = true;
+        int size = value.size();
+        if (size < minProperties) {
+            valid = report(errors, path, "minProperties", "%d properties are less than %d", size, minProperties);
+        } else if (size > maxProperties) {
+            valid = report(errors, path, "maxProperties", "%d properties are more than %d", size, maxProperties);
+        }
+        if (!valid && errors == null) {
+            return false;
+        }
+
+        for (String name : required) {
+            if (!value.has(name)) {
+                valid = report(errors, path, "required", "property '%s' is missing", name);
+                if (errors == null) {
+                    return false;
+                }
+            }
+        }
+
+        for (Iterator<Map.Entry<String, JsonNode>> it = value.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            CompiledSchema propertySchema = properties.get(field.getKey());
+            if (propertySchema == null) {
+                propertySchema = additionalProperties;
+            }
+
+            if (propertySchema == null) {
+                valid = report(errors, path, "additionalProperties", "property '%s' is not allowed", field.getKey());
+            } else if (!propertySchema.validate(field.getValue(), child(path, field.getKey()), errors)) {
+                valid = false;
+            }
+
+            if (!valid && errors == null) {
+                return false;
+            }
+        }
+        return valid;
+    }
+
+    private static InstancePath child(InstancePath path, String name) {
+        return path == null ? null : path.child(name);
+    }
+
+    private static InstancePath child(InstancePath path, int index) {
+        return path == null ? null : path.child(index);
+    }
+
+    static boolean report(List<ValidationError> errors, InstancePath path, String keyword, String message, Object... args) {
+        if (errors != null) {
+            errors.add(ValidationError.create(path.toString(), keyword, format(Locale.ENGLISH, message, args)));
+        }
+        return false;
+    }
+
+    /**
+     * Returns a value that is equal to every other value with the same json meaning. Numbers are compared by their numeric
+     * value, so 1, 1.0 and 1.00 are all equal.
+     */
+    static JsonNode normalize(JsonNode node) {
+        if (node.isNumber()) {
+            BigDecimal value = node.decimalValue();
+            return DecimalNode.valueOf(value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros());
+        }
+        return node;
+    }
+
+    /**
+     * Returns true if a number has no fraction and fits into a long.
+     */
+    static boolean isLong(BigDecimal value) {
+        return (value.signum() == 0 || value.stripTrailingZeros().scale() <= 0)
+                && value.compareTo(LONG_MIN) >= 0 && value.compareTo(LONG_MAX) <= 0;
+    }
+
+    /**
+     * A minimum or maximum.
+     */
+    static final class Bound {
+
+        private final BigDecimal value;
+        private final boolean exclusive;
+        // the value as a long, if it has no fraction and fits.
+        private final boolean integral;
+        private final long longValue;
+
+        Bound(BigDecimal value, boolean exclusive) {
+            this.value = value;
+            this.exclusive = exclusive;
+
+            this.integral = isLong(value);
+            this.longValue = integral ? value.longValue() : 0L;
+        }
+
+        BigDecimal value() {
+            return value;
+        }
+
+        boolean isMinimumOf(JsonNode number) {
+            int comparison = compareTo(number);
+            return exclusive ? comparison < 0 : comparison <= 0;
+        }
+
+        boolean isMaximumOf(JsonNode number) {
+            int comparison = compareTo(number);
+            return exclusive ? comparison > 0 : comparison >= 0;
+        }
+
+        private int compareTo(JsonNode number) {
+            if (integral && number.isIntegralNumber() && number.canConvertToLong()) {
+                return Long.compare(longValue, number.longValue());
+            }
+            return value.compareTo(number.decimalValue());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stores generated root schemas on disk, so that they survive restarts.
+ * <p>
+ * An entry is found by a hash of the generator settings and the byte code of the type and all its supertypes. It also records
+ * the byte code hash of every other class that was used to generate the schema (e.g. the types of properties) and is only
+ * used if none of these classes have changed.
+ * <p>
+ * Read and write errors are thrown as {@link UncheckedIOException}. The generator treats them as cache misses, the cache never
+ * fails the generation of a schema.
+ */
+final class DiskSchemaCache {
+
+    // increase when the format of the cache entries changes.
+    private static final int FORMAT_VERSION = 1;
+
+    // the byte code of these classes decides how schemas are generated.
+    private static final List<Class<?>> GENERATOR_CLASSES = ImmutableList.of(JsonSchemaGenerator.class, ClassMetadata.class,
+            AttributeHolder.class, SimpleTypeMappings.class, SchemaDefinitions.class, TypeModel.class, TypeKind.class,
+            GenerationContext.class, SchemaDraft.class);
+
+    private static final String DEPENDENCIES = "dependencies";
+    private static final String SCHEMA = "schema";
+    private static final String ENTRY_SUFFIX = ".json";
+
+    private final Path directory;
+    private final ObjectMapper mapper;
+    private final HashCode configurationFingerprint;
+
+    DiskSchemaCache(Path directory, JsonSchemaGeneratorConfiguration config) {
+        this.directory = checkNotNull(directory, "directory is null");
+        this.mapper = new ObjectMapper().setNodeFactory(config.nodeFactory());
+        this.configurationFingerprint = configurationFingerprint(config);
+    }
+
+    /**
+     * Returns the stored schema for a type, if it exists and is still valid.
+     */
+    Optional<ObjectNode> load(Class<?> type) {
+        Optional<Path> entry = entry(type);
+        if (!entry.isPresent()) {
+            return Optional.empty();
+        }
+
+        JsonNode node;
+        try (InputStream in = Files.newInputStream(entry.get())) {
+            node = mapper.readTree(in);
+        } catch (NoSuchFileException | JsonProcessingException e) {
+            // missing or damaged entries are replaced when the schema is stored.
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(format(Locale.ENGLISH, "Could not read cached schema %s", entry.get()), e);
+        }
+
+        if (node == null || !node.path(SCHEMA).isObject() || !node.path(DEPENDENCIES).isObject()
+                || !dependenciesUnchanged(type.getClassLoader(), node.get(DEPENDENCIES))) {
+            return Optional.empty();
+        }
+
+        return Optional.of((ObjectNode) node.get(SCHEMA));
+    }
+
+    /**
+     * Stores the schema for a type.
+     *
+     * @param dependencies All classes that were used to generate the schema.
+     */
+    void store(Class<?> type, ObjectNode schema, Set<Class<?>> dependencies) {
+        Optional<Path> entry = entry(type);
+        if (!entry.isPresent()) {
+            return;
+        }
+
+        ObjectNode node = mapper.createObjectNode();
+        ObjectNode dependencyNode = node.putObject(DEPENDENCIES);
+        for (Class<?> dependency : dependencies) {
+            // system classes only change with the JVM
+            if (dependency.getClassLoader() == null) {
+                continue;
+            }
+
+            Optional<HashCode> fingerprint = ClassMetadata.forClass(dependency).fingerprint();
+            if (!fingerprint.isPresent()) {
+                // can not verify the entry later
+                return;
+            }
+            dependencyNode.put(dependency.getName(), fingerprint.get().toString());
+        }
+        node.set(SCHEMA, schema);
+
+        try {
+            Files.createDirectories(directory);
+            // entries are replaced atomically, so concurrent readers never see a partial entry.
+            Path temporaryFile = Files.createTempFile(directory, entry.get().getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporaryFile)) {
+                    mapper.writeValue(out, node);
+                }
+                Files.move(temporaryFile, entry.get(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(format(Locale.ENGLISH, "Could not store cached schema %s", entry.get()), e);
+        }
+    }
+
+    private Optional<Path> entry(Class<?> type) {
+        // system classes are never cached, their schemas are cheap.
+        if (type.getClassLoader() == null) {
+            return Optional.empty();
+        }
+
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putBytes(configurationFingerprint.asBytes())
+                .putString(type.getName(), UTF_8);
+
+        for (Class<?> supertype : TypeToken.of(type).getTypes().rawTypes()) {
+            if (supertype.getClassLoader() == null) {
+                continue;
+            }
+
+            Optional<HashCode> fingerprint = ClassMetadata.forClass(supertype).fingerprint();
+            if (!fingerprint.isPresent()) {
+                return Optional.empty();
+            }
+            hasher.putString(supertype.getName(), UTF_8).putBytes(fingerprint.get().asBytes());
+        }
+
+        return Optional.of(directory.resolve(hasher.hash() + ENTRY_SUFFIX));
+    }
+
+    private static boolean dependenciesUnchanged(ClassLoader classLoader, JsonNode dependencies) {
+        for (Iterator<Map.Entry<String, JsonNode>> it = dependencies.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> dependency = it.next();
+            try {
+                Optional<HashCode> fingerprint = ClassMetadata.forClass(Class.forName(dependency.getKey(), false, classLoader)).fingerprint();
+                if (!fingerprint.isPresent() || !fingerprint.get().toString().equals(dependency.getValue().asText())) {
+                    return false;
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static HashCode configurationFingerprint(JsonSchemaGeneratorConfiguration config) {
+        Hasher hasher = Hashing.sha256().newHasher().putInt(FORMAT_VERSION);
+
+        for (Class<?> generatorClass : GENERATOR_CLASSES) {
+            ClassMetadata.forClass(generatorClass).fingerprint().ifPresent(fingerprint -> hasher.putBytes(fingerprint.asBytes()));
+        }
+
+        // all settings that change the generated schemas.
+        return hasher.putBoolean(config.addSchemaVersion())
+                .putBoolean(config.sortSchemaProperties())
+                .putBoolean(config.processProperties())
+                .putBoolean(config.processFields())
+                .putBoolean(config.useDefinitions())
+                .putString(config.draft().name(), UTF_8)
+                .hash();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The state of a single schema generation. Every call of the generator creates its own context, so a generator can be used by many
+ * threads at once. A context is only used by one thread.
+ */
+final class GenerationContext {
+
+    // the custom types whose schemas are currently generated, to detect recursion.
+    private final Set<Type> enclosingTypes;
+
+    // only set while a schema with definitions is generated.
+    private SchemaDefinitions definitions = null;
+
+    // only set if the schema is generated for the disk cache.
+    private final Set<Class<?>> dependencies;
+
+    private GenerationContext(Set<Type> enclosingTypes, Set<Class<?>> dependencies) {
+        this.enclosingTypes = enclosingTypes;
+        this.dependencies = dependencies;
+    }
+
+    static GenerationContext create() {
+        return new GenerationContext(new HashSet<>(), null);
+    }
+
+    /**
+     * A context that records all classes that are used to generate the schema.
+     *
+     * @see #dependencies()
+     */
+    static GenerationContext recordingDependencies() {
+        return new GenerationContext(new HashSet<>(), new HashSet<>());
+    }
+
+    /**
+     * A context for a subschema that is generated separately from its enclosing schema, e.g. when it is read or written.
+     */
+    static GenerationContext withEnclosingTypes(Set<Type> enclosingTypes) {
+        GenerationContext context = create();
+        context.enclosingTypes.addAll(enclosingTypes);
+        return context;
+    }
+
+    /**
+     * A context for a part of the schema that is shared with other generations. It shares the enclosing types with this context, but
+     * has no definitions and records its own dependencies, which are added to this context with {@link #recordDependencies(Set)}.
+     */
+    GenerationContext forSharedSchema(boolean recordDependencies) {
+        checkState(definitions == null, "Schemas with definitions can not be shared!");
+        return new GenerationContext(enclosingTypes, recordDependencies ? new HashSet<>() : null);
+    }
+
+    boolean isEnclosingType(Type type) {
+        return enclosingTypes.contains(type);
+    }
+
+    void enterType(Type type) {
+        enclosingTypes.add(type);
+    }
+
+    void exitType(Type type) {
+        enclosingTypes.remove(type);
+    }
+
+    ImmutableSet<Type> enclosingTypes() {
+        return ImmutableSet.copyOf(enclosingTypes);
+    }
+
+    /**
+     * The definitions of the schema, null unless a schema with definitions is generated.
+     */
+    SchemaDefinitions definitions() {
+        return definitions;
+    }
+
+    void startDefinitions(SchemaDefinitions definitions) {
+        checkState(this.definitions == null, "Schema with definitions is already generated!");
+        this.definitions = definitions;
+    }
+
+    void endDefinitions() {
+        this.definitions = null;
+    }
+
+    void recordDependency(Class<?> clazz) {
+        if (dependencies != null) {
+            while (clazz.isArray()) {
+                clazz = clazz.getComponentType();
+            }
+            dependencies.add(clazz);
+        }
+    }
+
+    void recordDependencies(Set<Class<?>> classes) {
+        if (dependencies != null) {
+            dependencies.addAll(classes);
+        }
+    }
+
+    Set<Class<?>> dependencies() {
+        checkState(dependencies != null, "Dependencies are not recorded!");
+        return dependencies;
+    }
+}
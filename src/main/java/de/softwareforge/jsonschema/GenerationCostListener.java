@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link GenerationListener} that adds up the cost of generating the schema of every type. The time of a type is reported both
+ * with and without its nested types, so {@link #costs()} shows the types whose own schemas are expensive first.
+ * <p>
+ * Can be shared between generators and threads. Keeps the reported types, and with them their class loaders, until {@link #reset()}
+ * is called. A listener that outlives the classes it measured, e.g. one that is shared by the web applications of a container,
+ * must be reset or discarded when they are undeployed.
+ */
+public final class GenerationCostListener implements GenerationListener {
+
+    private final Map<Type, Counters> counters = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * The cost of every type seen so far, the most expensive types (by time without nested types) first.
+     */
+    public ImmutableList<TypeCost> costs() {
+        return counters.entrySet().stream()
+                .map(entry -> entry.getValue().toTypeCost(entry.getKey()))
+                .sorted(Comparator.comparing(TypeCost::selfTime).reversed())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Forgets all costs and releases the reported types.
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    @Override
+    public void typeEntered(Type type) {
+        frames.get().push(new Frame(type));
+    }
+
+    @Override
+    public void typeExited(Type type, long nanos) {
+        Deque<Frame> stack = frames.get();
+        Frame frame = stack.pop();
+
+        Counters typeCounters = counters(type);
+        typeCounters.occurrences.increment();
+        typeCounters.totalNanos.add(nanos);
+        typeCounters.selfNanos.add(Math.max(0, nanos - frame.nestedNanos));
+
+        Frame enclosingFrame = stack.peek();
+        if (enclosingFrame != null) {
+            enclosingFrame.nestedNanos += nanos;
+        }
+    }
+
+    @Override
+    public void memberScanned(Member member) {
+        counters(currentType(member.getDeclaringClass())).membersScanned.increment();
+    }
+
+    @Override
+    public void annotationsResolved(AnnotatedElement element) {
+        Type type = element instanceof Member ? ((Member) element).getDeclaringClass() : (Class<?>) element;
+        counters(currentType(type)).annotationsResolved.increment();
+    }
+
+    @Override
+    public void cacheHit(Class<?> type, CacheKind cache) {
+        counters(type).cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss(Class<?> type, CacheKind cache) {
+        counters(type).cacheMisses.increment();
+    }
+
+    @Override
+    public void nodesGenerated(Type type, int count) {
+        counters(type).nodesGenerated.add(count);
+    }
+
+    // costs belong to the type whose schema is generated, e.g. the members of a superclass.
+    private Type currentType(Type defaultType) {
+        Frame frame = frames.get().peek();
+        return frame == null ? defaultType : frame.type;
+    }
+
+    private Counters counters(Type type) {
+        return counters.computeIfAbsent(type, key -> new Counters());
+    }
+
+    /**
+     * The cost of generating the schemas for a type.
+     */
+    @AutoValue
+    public abstract static class TypeCost {
+
+        static TypeCost create(Type type, long occurrences, Duration totalTime, Duration selfTime, long membersScanned,
+                long annotationsResolved, long nodesGenerated, long cacheHits, long cacheMisses) {
+            return new AutoValue_GenerationCostListener_TypeCost(type, occurrences, totalTime, selfTime, membersScanned, annotationsResolved,
+                    nodesGenerated, cacheHits, cacheMisses);
+        }
+
+        public abstract Type type();
+
+        /**
+         * How often a schema for the type was generated, e.g. once for every property of the type.
+         */
+        public abstract long occurrences();
+
+        /**
+         * The time spent for the type, including its nested types.
+         */
+        public abstract Duration totalTime();
+
+        /**
+         * The time spent for the type itself, without its nested types.
+         */
+        public abstract Duration selfTime();
+
+        /**
+         * The members that were examined to build the properties of the type. Zero if another generator built them before.
+         */
+        public abstract long membersScanned();
+
+        public abstract long annotationsResolved();
+
+        /**
+         * The json nodes in the generated schemas of the type itself, without its nested types.
+         */
+        public abstract long nodesGenerated();
+
+        /**
+         * How often the root schema of the type was found in any cache.
+         */
+        public abstract long cacheHits();
+
+        /**
+         * How often the root schema of the type was not found in a cache.
+         */
+        public abstract long cacheMisses();
+    }
+
+    private static final class Counters {
+
+        private final LongAdder occurrences = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LongAdder membersScanned = new LongAdder();
+        private final LongAdder annotationsResolved = new LongAdder();
+        private final LongAdder nodesGenerated = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+
+        private TypeCost toTypeCost(Type type) {
+            return TypeCost.create(type, occurrences.sum(), Duration.ofNanos(totalNanos.sum()), Duration.ofNanos(selfNanos.sum()),
+                    membersScanned.sum(), annotationsResolved.sum(), nodesGenerated.sum(), cacheHits.sum(), cacheMisses.sum());
+        }
+    }
+
+    private static final class Frame {
+
+        private final Type type;
+        private long nestedNanos = 0;
+
+        private Frame(Type type) {
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import java.io.UncheckedIOException;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Type;
+
+/**
+ * Receives events while schemas are generated. Registered with
+ * {@link JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder#listener(GenerationListener)}; a generator without a
+ * listener does not create any events.
+ * <p>
+ * Events for one type are delivered on the thread that generates its schema, between {@link #typeEntered(Type)} and
+ * {@link #typeExited(Type, long)}. Types nest: the events of a property type arrive while its enclosing type is entered.
+ * {@link JsonSchemaGenerator#generateSchemas(java.util.Collection)} and lazy schemas generate on multiple threads, so
+ * listeners must be thread safe. All methods do nothing by default.
+ *
+ * @see GenerationCostListener
+ */
+public interface GenerationListener {
+
+    /**
+     * The caches that a generator consults before it generates a root schema.
+     */
+    enum CacheKind {
+        /**
+         * The in-memory schema cache of the generator.
+         */
+        MEMORY,
+        /**
+         * Schemas from the annotation processor, see
+         * {@link JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder#usePrecomputedSchemas()}.
+         */
+        PRECOMPUTED,
+        /**
+         * The disk cache, see {@link JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder#diskCache(java.nio.file.Path)}.
+         */
+        DISK
+    }
+
+    /**
+     * The generator starts the schema of a type. Called for every occurrence of the type, including simple types.
+     */
+    default void typeEntered(Type type) {
+    }
+
+    /**
+     * The generator has finished the schema of a type, successfully or not.
+     *
+     * @param nanos The time spent for the type, including all nested types.
+     */
+    default void typeExited(Type type, long nanos) {
+    }
+
+    /**
+     * The generator has examined an annotated method or field while it built the properties of a type. The properties of a class
+     * are built once and shared by all generators, so its members are only reported to the listener of the generator that builds
+     * them, not for every schema that uses the type.
+     */
+    default void memberScanned(Member member) {
+    }
+
+    /**
+     * The schema attributes of a method or field have been resolved from its annotations while the generator built the properties of
+     * a type. Reported after {@link #memberScanned(Member)} for every member that is not ignored.
+     */
+    default void annotationsResolved(AnnotatedElement element) {
+    }
+
+    /**
+     * A root schema was found in a cache.
+     */
+    default void cacheHit(Class<?> type, CacheKind cache) {
+    }
+
+    /**
+     * A root schema was not found in a cache.
+     */
+    default void cacheMiss(Class<?> type, CacheKind cache) {
+    }
+
+    /**
+     * A cache could not read or store the root schema of a type, e.g. because the disk cache directory is not writable. The
+     * generator treats the entry as missing and still returns the schema.
+     */
+    default void cacheFailed(Class<?> type, CacheKind cache, UncheckedIOException error) {
+    }
+
+    /**
+     * The number of json nodes in the generated schema of a type, reported just before {@link #typeExited(Type, long)}. Does not
+     * include the nodes of nested types, which are reported for these types, nor subschemas that are generated later. This is the
+     * size of the result, not the number of allocated objects: nodes that are copied from a cache or shared are counted as well.
+     */
+    default void nodesGenerated(Type type, int count) {
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+/**
+ * The location of a value in a validated json document. Only turned into a json pointer when a validation error is reported.
+ */
+final class InstancePath {
+
+    static final InstancePath ROOT = new InstancePath(null, null);
+
+    private final InstancePath parent;
+    private final String segment;
+
+    private InstancePath(InstancePath parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+    }
+
+    InstancePath child(String name) {
+        return new InstancePath(this, name);
+    }
+
+    InstancePath child(int index) {
+        return new InstancePath(this, Integer.toString(index));
+    }
+
+    /**
+     * Returns the path as a json pointer (RFC 6901). The root is the empty string.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    private void appendTo(StringBuilder builder) {
+        if (parent == null) {
+            return;
+        }
+        parent.appendTo(builder);
+        builder.append('/').append(segment.replace("~", "~0").replace("/", "~1"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * The primitive types of json schema.
+ */
+enum InstanceType {
+    NULL("null"),
+    BOOLEAN("boolean"),
+    INTEGER("integer"),
+    NUMBER("number"),
+    STRING("string"),
+    ARRAY("array"),
+    OBJECT("object");
+
+    private final String schemaName;
+
+    InstanceType(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    /**
+     * The name of the type in a schema.
+     */
+    String schemaName() {
+        return schemaName;
+    }
+
+    static InstanceType forSchemaName(String schemaName) {
+        for (InstanceType type : values()) {
+            if (type.schemaName.equals(schemaName)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException(format(Locale.ENGLISH, "Unknown type '%s'", schemaName));
+    }
+
+    /**
+     * Returns the type of a json value. Numbers with a fraction are {@link #NUMBER}, all other numbers are {@link #INTEGER}.
+     */
+    static InstanceType of(JsonNode node) {
+        switch (node.getNodeType()) {
+            case NULL:
+            case MISSING:
+                return NULL;
+            case BOOLEAN:
+                return BOOLEAN;
+            case NUMBER:
+                return node.isIntegralNumber() ? INTEGER : NUMBER;
+            case STRING:
+            case BINARY:
+                return STRING;
+            case ARRAY:
+                return ARRAY;
+            case OBJECT:
+                return OBJECT;
+            default:
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "Unknown node type %s", node.getNodeType()));
+        }
+    }
+
+    /**
+     * Returns true if a floating point number has no fraction, e.g. 1.0.
+     */
+    static boolean isIntegralValue(JsonNode node) {
+        if (node.isIntegralNumber()) {
+            return true;
+        }
+        if (node.isDouble() || node.isFloat()) {
+            double value = node.doubleValue();
+            return !Double.isInfinite(value) && value == Math.rint(value);
+        }
+        BigDecimal value = node.decimalValue();
+        return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NumericNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.math.BigDecimal;
+
+/**
+ * A node factory that returns the same node for equal strings and numbers, e.g. for the {@code "string"} of every {@code "type":
+ * "string"}. Value nodes are immutable, so they can be shared by any number of schemas. Use it with
+ * {@link JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder#customNodeFactory(JsonNodeFactory)}.
+ * <p>
+ * Objects and arrays can be modified and are never shared by a node factory, see
+ * {@link JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder#internSubschemas()} to share them in cached schemas.
+ */
+public class InterningNodeFactory extends JsonNodeFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    // shared by all factories, their value nodes are the same.
+    private static final Interner<JsonNode> INTERNER = Interners.newWeakInterner();
+
+    public InterningNodeFactory() {
+        this(false);
+    }
+
+    /**
+     * @param bigDecimalExact Whether decimal nodes keep their scale, see {@link JsonNodeFactory#JsonNodeFactory(boolean)}.
+     */
+    public InterningNodeFactory(boolean bigDecimalExact) {
+        super(bigDecimalExact);
+    }
+
+    @Override
+    public TextNode textNode(String text) {
+        return intern(super.textNode(text));
+    }
+
+    @Override
+    public NumericNode numberNode(int v) {
+        return intern(super.numberNode(v));
+    }
+
+    @Override
+    public NumericNode numberNode(long v) {
+        return intern(super.numberNode(v));
+    }
+
+    @Override
+    public NumericNode numberNode(double v) {
+        return intern(super.numberNode(v));
+    }
+
+    @Override
+    public NumericNode numberNode(BigDecimal v) {
+        return intern(super.numberNode(v));
+    }
+
+    private <T extends JsonNode> T intern(T node) {
+        @SuppressWarnings("unchecked")
+        T sharedNode = node == null ? null : (T) INTERNER.intern(node);
+        return sharedNode;
+    }
+}
@@ -14,247 +14,731 @@
 
 package de.softwareforge.jsonschema;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
-import java.util.HashSet;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates json schemas for java types.
+ * <p>
+ * A generator instance is thread safe. It only holds its configuration and caches, every call generates with its own
+ * {@link GenerationContext}, so one generator can serve any number of threads.
+ */
 public final class JsonSchemaGenerator {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // provides the serializers for value nodes of streamed schemas, e.g. a POJONode from a custom node factory.
+    private static final ObjectMapper SERIALIZER_MAPPER = new ObjectMapper();
+
     private final JsonNodeFactory nodeFactory;
     private final JsonSchemaGeneratorConfiguration config;
 
-    private final Set<Type> dictionary = new HashSet<>();
+    // Schemas are cached as private copies and handed out as deep copies, so
+    // callers can never modify a cached schema.
+    private final ClassCache<ObjectNode> schemaCache;
+    private final Optional<DiskSchemaCache> diskCache;
+
+    // canonical forms of the cached schemas, so they are serialized and hashed only once.
+    private final ClassCache<CanonicalSchema> canonicalCache;
+
+    // The enum array of a class only depends on the node factory, so it is built once and shared by all
+    // generations. Never handed out, schemas get copies.
+    private final ClassCache<ArrayNode> enumCache;
+
+    // The properties of custom types that are generated right now. Concurrent generations of the same type wait for the
+    // first one instead of repeating it.
+    private final SingleFlight<Type, SharedProperties> propertyFlights = new SingleFlight<>();
+
+    // null unless cached schemas share their subschemas.
+    private final SchemaInterner interner;
+
+    // null without a listener, so no events are created.
+    private final GenerationListener listener;
+
+    // generates the schema for every kind of type.
+    private final Map<TypeKind, TypeHandler> handlers;
 
     JsonSchemaGenerator(JsonSchemaGeneratorConfiguration config) {
         this.nodeFactory = config.nodeFactory();
         this.config = config;
+        this.schemaCache = new ClassCache<>(config.schemaCacheSize());
+        this.canonicalCache = new ClassCache<>(config.schemaCacheSize());
+        this.diskCache = config.diskCacheDirectory().map(directory -> new DiskSchemaCache(directory, config));
+        this.enumCache = ClassCache.unbounded();
+        this.interner = config.internSubschemas() ? new SchemaInterner() : null;
+        this.listener = config.listener().orElse(null);
+
+        Map<TypeKind, TypeHandler> handlers = new EnumMap<>(TypeKind.class);
+        handlers.put(TypeKind.SIMPLE, this::generateSimpleType);
+        handlers.put(TypeKind.OPTIONAL, this::generateSimpleType);
+        handlers.put(TypeKind.VOID, this::generateSimpleType);
+        handlers.put(TypeKind.COLLECTION, this::generateCollection);
+        handlers.put(TypeKind.ENUM, this::generateEnum);
+        handlers.put(TypeKind.MAP, this::generateObject);
+        handlers.put(TypeKind.BEAN, this::generateObject);
+        this.handlers = Maps.immutableEnumMap(handlers);
+        checkState(this.handlers.size() == TypeKind.values().length, "Not all kinds of types have a handler!");
     }
 
-    private static Optional<AttributeHolder> acceptMethod(Method method) {
-        // ignore weird stuff
-        int modifiers = method.getModifiers();
-        if (method.isBridge()
-                || method.isSynthetic()
-                || method.isDefault()
-                || Modifier.isStatic(modifiers)) {
-            return Optional.empty();
+    public <T> ObjectNode generateSchema(Class<T> type) {
+        if (config.schemaCacheSize() == 0) {
+            return createSchema(type);
+        }
+
+        return sharedSchema(type).deepCopy();
+    }
+
+    /**
+     * Generates the canonical form of the schema for a type: its bytes with sorted keys and without whitespace, and a fingerprint of its
+     * content. The canonical form is cached with the schema, so repeated calls neither serialize nor hash the schema again.
+     *
+     * @see CanonicalSchema
+     */
+    public <T> CanonicalSchema generateCanonicalSchema(Class<T> type) {
+        checkNotNull(type, "type is null");
+
+        if (config.schemaCacheSize() == 0) {
+            return CanonicalSchema.of(createSchema(type));
+        }
+
+        CanonicalSchema canonicalSchema = canonicalCache.getIfPresent(type);
+        if (canonicalSchema != null) {
+            return canonicalSchema;
+        }
+
+        try {
+            return canonicalCache.get(type, () -> CanonicalSchema.of(sharedSchema(type)));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // the cached private copy of a schema, must not be modified.
+    private ObjectNode sharedSchema(Class<?> type) {
+        ObjectNode cachedSchema = cachedSchema(type);
+        if (cachedSchema != null) {
+            return cachedSchema;
+        }
+
+        try {
+            return schemaCache.get(type, () -> {
+                ObjectNode schema = createSchema(type);
+                return interner == null ? schema : interner.intern(schema);
+            });
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Creates a validator that checks instances of a type against the schema of the type, without serializing them.
+     *
+     * @throws IllegalArgumentException If the schema references schemas outside of itself, e.g. with {@link
+     *                                  de.softwareforge.jsonschema.annotations.JsonSchema#$ref()}.
+     * @see SchemaValidator
+     */
+    public <T> ObjectValidator<T> generateObjectValidator(Class<T> type) {
+        checkNotNull(type, "type is null");
+
+        CompiledSchema schema = SchemaCompiler.compile(generateSchema(type), config.draft());
+        return new ObjectValidator<>(BoundSchema.bind(type, schema, config));
+    }
+
+    /**
+     * Generates the schemas for multiple types in parallel, using the common {@link ForkJoinPool}.
+     *
+     * @see #generateSchemas(Collection, Executor)
+     */
+    public SchemaBatchResult generateSchemas(Collection<? extends Class<?>> types) {
+        return generateSchemas(types, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates the schemas for multiple types in parallel. Every schema is generated as a separate task on the executor. All tasks share
+     * the schema cache and the class metadata of this generator.
+     * <p>
+     * A failure to generate a schema does not affect the other types, it is reported in {@link SchemaBatchResult#failures()}.
+     * This method blocks until all schemas have been generated.
+     */
+    public SchemaBatchResult generateSchemas(Collection<? extends Class<?>> types, Executor executor) {
+        checkNotNull(types, "types is null");
+        checkNotNull(executor, "executor is null");
+
+        Map<Class<?>, Long> timings = new ConcurrentHashMap<>();
+        Map<Class<?>, CompletableFuture<ObjectNode>> futures = new LinkedHashMap<>();
+        for (Class<?> type : types) {
+            checkNotNull(type, "type is null");
+            futures.computeIfAbsent(type, key -> CompletableFuture.supplyAsync(() -> {
+                long startTime = System.nanoTime();
+                try {
+                    return generateSchema(key);
+                } finally {
+                    timings.put(key, System.nanoTime() - startTime);
+                }
+            }, executor));
+        }
+
+        SchemaBatchResult.Builder builder = SchemaBatchResult.builder();
+        futures.forEach((type, future) -> {
+            try {
+                builder.schemasBuilder().put(type, future.join());
+            } catch (CompletionException e) {
+                builder.failuresBuilder().put(type, e.getCause());
+            } catch (CancellationException e) {
+                builder.failuresBuilder().put(type, e);
+            }
+
+            Long timing = timings.get(type);
+            if (timing != null) {
+                builder.timingsBuilder().put(type, Duration.ofNanos(timing));
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Drops all schemas cached by this generator.
+     */
+    public void invalidateCache() {
+        schemaCache.invalidateAll();
+        canonicalCache.invalidateAll();
+    }
+
+    /**
+     * Drops all schemas cached by this generator for classes that were loaded by a class loader or one of its descendants, together with
+     * the class metadata of these classes, which all generators share.
+     * <p>
+     * Cached schemas and metadata never keep a class loader alive, they are collected when their classes become unreachable. Call
+     * this e.g. when a web application is undeployed, to release them right away.
+     */
+    public void invalidateCache(ClassLoader classLoader) {
+        checkNotNull(classLoader, "classLoader is null");
+
+        schemaCache.invalidate(classLoader);
+        canonicalCache.invalidate(classLoader);
+        enumCache.invalidate(classLoader);
+        ClassMetadata.invalidate(classLoader);
+    }
+
+    /**
+     * Writes the schema for a type to a stream. The schema is written as JSON using UTF-8, the stream is not closed.
+     *
+     * @see #writeSchema(Class, JsonGenerator)
+     */
+    public <T> void writeSchema(Class<T> type, OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream, "outputStream is null");
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            writeSchema(type, generator);
+        }
+    }
+
+    /**
+     * Writes the schema for a type to a {@link JsonGenerator}. Subschemas are generated while they are written, so the full schema
+     * never exists as a tree of nodes. Writes the same schema as {@link #generateSchema(Class)}.
+     * <p>
+     * Schemas with definitions are generated completely before they are written, because all definitions must be known.
+     */
+    public <T> void writeSchema(Class<T> type, JsonGenerator generator) throws IOException {
+        checkNotNull(type, "type is null");
+        checkNotNull(generator, "generator is null");
+
+        SerializerProvider provider = SERIALIZER_MAPPER.getSerializerProviderInstance();
+        ObjectNode cachedSchema = cachedSchema(type);
+        if (cachedSchema != null) {
+            writeObject(cachedSchema, generator, provider);
+            return;
         }
 
-        // fetch annotations for method
-        return AttributeHolder.locate(method);
+        Optional<ObjectNode> storedSchema = loadStoredSchema(type);
+        if (storedSchema.isPresent()) {
+            writeObject(storedSchema.get(), generator, provider);
+        } else if (config.useDefinitions()) {
+            writeObject(createSchema(GenerationContext.create(), nodeFactory.objectNode(), type), generator, provider);
+        } else {
+            Optional<AttributeHolder> rootAttributes = ClassMetadata.forClass(type).attributes();
+            ObjectNode root = new SubschemaNode(nodeFactory, type, rootAttributes, ImmutableSet.of());
+            ObjectNode schema = createSchema(GenerationContext.create(), root, type);
+            writeObject(schema, generator, provider);
+        }
+    }
+
+    /**
+     * Writes the canonical schemas of many types to a {@link SchemaArchive}, indexed by type name and fingerprint. Schemas are
+     * generated one after the other; if one fails, the exception is thrown and no archive is written.
+     *
+     * @throws IllegalArgumentException If two types have the same name, e.g. because they come from different class loaders.
+     */
+    public void exportArchive(Collection<? extends Class<?>> types, Path file) throws IOException {
+        checkNotNull(types, "types is null");
+        checkNotNull(file, "file is null");
+
+        Map<String, CanonicalSchema> schemas = new LinkedHashMap<>();
+        Map<String, Class<?>> exportedTypes = new LinkedHashMap<>();
+        for (Class<?> type : types) {
+            checkNotNull(type, "type is null");
+
+            Class<?> exportedType = exportedTypes.putIfAbsent(type.getName(), type);
+            if (exportedType == null) {
+                schemas.put(type.getName(), generateCanonicalSchema(type));
+            } else {
+                checkArgument(exportedType == type, "Can not export two types named %s", type.getName());
+            }
+        }
+        SchemaArchive.write(schemas, file);
+    }
+
+    /**
+     * Generates the schema for a type lazily. The returned node and the subschemas of all properties and items are generated when
+     * they are first read, serialized or modified, so the time and memory needed depend on the parts of the schema that are actually
+     * used, not on all types that are reachable from the root type. A completely read lazy schema is the same as the schema from
+     * {@link #generateSchema(Class)}; {@link ObjectNode#deepCopy()} generates all of it at once.
+     * <p>
+     * Errors, e.g. for recursive types, are thrown when the failing subschema is read. Lazy schemas are not cached. Cached, precomputed
+     * or stored schemas and schemas with definitions are returned completely. The nodes of a lazy schema keep a reference to this generator
+     * and can be read from multiple threads.
+     */
+    public <T> ObjectNode generateLazySchema(Class<T> type) {
+        checkNotNull(type, "type is null");
+
+        ObjectNode cachedSchema = cachedSchema(type);
+        if (cachedSchema != null) {
+            return cachedSchema.deepCopy();
+        }
+
+        Optional<ObjectNode> storedSchema = loadStoredSchema(type);
+        if (storedSchema.isPresent()) {
+            return storedSchema.get();
+        } else if (config.useDefinitions()) {
+            return createSchema(GenerationContext.create(), nodeFactory.objectNode(), type);
+        } else {
+            // every node is generated with its own context, lazy nodes may be read concurrently.
+            return new LazySchemaNode(nodeFactory, schema -> createSchema(GenerationContext.create(), schema, type));
+        }
     }
 
-    private static Optional<AttributeHolder> acceptField(Field field) {
-        // ignore weird stuff
-        int modifiers = field.getModifiers();
-        if (field.isEnumConstant()
-                || field.isSynthetic()
-                || Modifier.isTransient(modifiers)
-                || Modifier.isStatic(modifiers)) {
+    private ObjectNode cachedSchema(Class<?> type) {
+        ObjectNode cachedSchema = schemaCache.getIfPresent(type);
+        reportCacheLookup(type, GenerationListener.CacheKind.MEMORY, cachedSchema != null);
+        return cachedSchema;
+    }
+
+    private Optional<ObjectNode> loadStoredSchema(Class<?> type) {
+        Optional<ObjectNode> storedSchema = loadPrecomputedSchema(type);
+        if (!storedSchema.isPresent()) {
+            storedSchema = loadDiskSchema(type);
+        }
+        return storedSchema;
+    }
+
+    private Optional<ObjectNode> loadDiskSchema(Class<?> type) {
+        if (!diskCache.isPresent()) {
             return Optional.empty();
         }
 
-        // fetch annotations for method
-        return AttributeHolder.locate(field);
+        Optional<ObjectNode> storedSchema;
+        try {
+            storedSchema = diskCache.get().load(type);
+        } catch (UncheckedIOException e) {
+            // the disk cache is only an optimization, an entry that can not be read is missing.
+            reportCacheFailure(type, GenerationListener.CacheKind.DISK, e);
+            storedSchema = Optional.empty();
+        }
+        reportCacheLookup(type, GenerationListener.CacheKind.DISK, storedSchema.isPresent());
+        return storedSchema;
     }
 
-    public <T> ObjectNode generateSchema(Class<T> type) {
-        TypeToken typeToken = TypeToken.of(type);
-        Optional<AttributeHolder> rootAttributes = AttributeHolder.locate(typeToken.getRawType());
+    private void storeDiskSchema(Class<?> type, ObjectNode schema, Set<Class<?>> dependencies) {
+        try {
+            diskCache.get().store(type, schema, dependencies);
+        } catch (UncheckedIOException e) {
+            // the schema is still valid, it is generated again next time.
+            reportCacheFailure(type, GenerationListener.CacheKind.DISK, e);
+        }
+    }
 
-        ObjectNode schema = nodeFactory.objectNode();
+    private void reportCacheFailure(Class<?> type, GenerationListener.CacheKind cache, UncheckedIOException error) {
+        if (listener != null) {
+            listener.cacheFailed(type, cache, error);
+        }
+    }
 
-        if (config.addSchemaVersion()) {
-            schema.put("$schema", "http://json-schema.org/draft-04/schema#");
+    private void reportCacheLookup(Class<?> type, GenerationListener.CacheKind cache, boolean hit) {
+        if (listener != null) {
+            if (hit) {
+                listener.cacheHit(type, cache);
+            } else {
+                listener.cacheMiss(type, cache);
+            }
         }
+    }
+
+    private void writeObject(ObjectNode schema, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        for (Iterator<Map.Entry<String, JsonNode>> it = schema.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            generator.writeFieldName(field.getKey());
+            writeValue(field.getValue(), generator, provider);
+        }
+        generator.writeEndObject();
+    }
 
-        createSchemaForType(schema, type, rootAttributes);
+    private void writeValue(JsonNode value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (value instanceof SubschemaNode) {
+            // generate the subschema now. Its own subschemas are again deferred until they are written.
+            writeObject(createSubschema((SubschemaNode) value), generator, provider);
+        } else if (value.isObject()) {
+            writeObject((ObjectNode) value, generator, provider);
+        } else if (value.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : value) {
+                writeValue(element, generator, provider);
+            }
+            generator.writeEndArray();
+        } else if (value.isNull()) {
+            generator.writeNull();
+        } else {
+            ((JsonSerializable) value).serialize(generator, provider);
+        }
+    }
+
+    private ObjectNode createSchema(Class<?> type) {
+        Optional<ObjectNode> precomputedSchema = loadPrecomputedSchema(type);
+        if (precomputedSchema.isPresent()) {
+            return precomputedSchema.get();
+        }
 
+        if (!diskCache.isPresent()) {
+            return createSchema(GenerationContext.create(), nodeFactory.objectNode(), type);
+        }
+
+        Optional<ObjectNode> storedSchema = loadDiskSchema(type);
+        if (storedSchema.isPresent()) {
+            return storedSchema.get();
+        }
+
+        GenerationContext context = GenerationContext.recordingDependencies();
+        ObjectNode schema = createSchema(context, nodeFactory.objectNode(), type);
+        storeDiskSchema(type, schema, context.dependencies());
         return schema;
     }
 
-    private <T> void createSchemaForType(ObjectNode schema, Type type, Optional<AttributeHolder> attributes) {
-        if (dictionary.contains(type)) {
-            throw new IllegalStateException("Recursion detected, not supported!");
+    private Optional<ObjectNode> loadPrecomputedSchema(Class<?> type) {
+        // the annotation processor generates draft 4 schemas without definitions
+        if (!config.usePrecomputedSchemas() || config.useDefinitions() || config.draft() != SchemaDraft.DRAFT_04) {
+            return Optional.empty();
         }
 
-        Optional<String> overriddenType = attributes.isPresent()
-                ? attributes.get().type()
-                : Optional.empty();
+        Optional<ObjectNode> precomputedSchema = PrecomputedSchemas.load(type, config);
+        reportCacheLookup(type, GenerationListener.CacheKind.PRECOMPUTED, precomputedSchema.isPresent());
+        return precomputedSchema.map(storedSchema -> {
+            ObjectNode schema = nodeFactory.objectNode();
+            addSchemaVersion(schema);
+            schema.setAll(storedSchema);
+            return schema;
+        });
+    }
 
-        // Simple types are a schema with their type.
-        Optional<String> s = SimpleTypeMappings.forClass(type);
-
-        // If it is a simple type, then just put the type
-        if (s.isPresent()) {
-            // this is a cop-out, because only simple types can be overridden.
-            addTypeToSchema(schema, overriddenType.orElse(s.get()));
-            // if a format hint exists, add that as well
-            SimpleTypeMappings.formatHint(type).ifPresent((formatHint) -> schema.put("format", formatHint));
-        } else if (SimpleTypeMappings.isCollectionLike(type)) {
-            augmentSchemaWithCollection(schema, type);
-            // void to the null type. Does not really make sense.
-        } else if (type == Void.class || type == void.class) {
-            // this is a cop-out, because only simple types can be overridden.
-            addTypeToSchema(schema, overriddenType.orElse("null"));
-            // If it is an Enum than process like enum
-        } else if (isEnum(type, attributes)) {
-            augmentSchemaWithEnum((Class<?>) type, schema);
-            // what about map?
+    private void addSchemaVersion(ObjectNode schema) {
+        if (config.addSchemaVersion()) {
+            schema.put("$schema", config.draft().schemaUri());
+        }
+    }
+
+    private ObjectNode createSchema(GenerationContext context, ObjectNode schema, Class<?> type) {
+        Optional<AttributeHolder> rootAttributes = ClassMetadata.forClass(type).attributes();
+
+        addSchemaVersion(schema);
+
+        if (config.useDefinitions()) {
+            createSchemaWithDefinitions(context, schema, type, rootAttributes);
         } else {
-            dictionary.add(type);
-            augmentSchemaWithCustomType(schema, type, attributes);
-            dictionary.remove(type);
+            createSchemaForType(context, schema, type, rootAttributes);
         }
-        attributes.ifPresent(schemaAttributes -> augmentAttributes(schema, type, schemaAttributes));
+
+        return schema;
     }
 
-    private <T> void augmentSchemaWithEnum(Class<T> type, ObjectNode schema) {
-        ArrayNode enumArray = schema.putArray("enum");
-        for (T constant : type.getEnumConstants()) {
-            String value = constant.toString();
-            // Check if value is numeric
-            try {
-                // First verifies if it is an integer
-                Long integer = Long.parseLong(value);
-                enumArray.add(integer);
-                // If not then verifies if it is an floating point number
-            } catch (NumberFormatException e) {
-                try {
-                    BigDecimal number = new BigDecimal(value);
-                    enumArray.add(number);
-                    // Otherwise add as String
-                } catch (NumberFormatException e1) {
-                    enumArray.add(value);
-                }
+    private void createSchemaWithDefinitions(GenerationContext context, ObjectNode schema, Type type,
+            Optional<AttributeHolder> rootAttributes) {
+        SchemaDefinitions definitions = new SchemaDefinitions(type, rootAttributes, config.draft().definitionsKeyword());
+        context.startDefinitions(definitions);
+        try {
+            augmentSchemaForType(context, schema, TypeModel.of(type), rootAttributes);
+
+            // generating a definition may reference more definitions
+            Map<String, ObjectNode> definitionMap = config.sortSchemaProperties() ? new TreeMap<>() : new LinkedHashMap<>();
+            for (Optional<SchemaDefinitions.Definition> definition = definitions.nextPendingDefinition(); definition.isPresent();
+                    definition = definitions.nextPendingDefinition()) {
+                ObjectNode definitionNode = nodeFactory.objectNode();
+                augmentSchemaForType(context, definitionNode, TypeModel.of(definition.get().type()), definition.get().attributes());
+                definitionMap.put(definition.get().name(), definitionNode);
+            }
+
+            if (!definitionMap.isEmpty()) {
+                schema.putObject(definitions.keyword()).setAll(definitionMap);
             }
+        } finally {
+            context.endDefinitions();
         }
     }
 
-    private <T> void augmentSchemaWithCustomType(ObjectNode schema, Type type, Optional<AttributeHolder> attributeHolder) {
-        addTypeToSchema(schema, "object");
+    private void createSchemaForType(GenerationContext context, ObjectNode schema, Type type, Optional<AttributeHolder> attributes) {
+        // parameterized types are not cached, the model is built once for both steps.
+        TypeModel model = TypeModel.of(type);
+        SchemaDefinitions definitions = context.definitions();
+        if (definitions != null && isCustomType(model, attributes)) {
+            schema.put("$ref", definitions.reference(type, attributes));
+        } else {
+            augmentSchemaForType(context, schema, model, attributes);
+        }
+    }
 
-        if (attributeHolder.isPresent()) {
-            if (attributeHolder.get().ignoredProperties()) {
-                return;
-            }
+    private void augmentSchemaForType(GenerationContext context, ObjectNode schema, TypeModel model, Optional<AttributeHolder> attributes) {
+        if (listener == null) {
+            generateSchemaForType(context, schema, model, attributes);
+            return;
         }
 
-        if (config.processProperties()) {
-            findSchemaPropertiesFromMethods(type, schema).forEach((propertyName, objectNode) -> addToProperties(schema, propertyName, objectNode));
+        Type type = model.type();
+        listener.typeEntered(type);
+        long startTime = System.nanoTime();
+        boolean generated = false;
+        try {
+            generateSchemaForType(context, schema, model, attributes);
+            generated = true;
+        } finally {
+            long nanos = System.nanoTime() - startTime;
+            if (generated) {
+                listener.nodesGenerated(type, countNodes(schema));
+            }
+            listener.typeExited(type, nanos);
         }
+    }
 
-        if (config.processFields()) {
-            findSchemaPropertiesFromFields(type, schema).forEach((propertyName, objectNode) -> addToProperties(schema, propertyName, objectNode));
+    private void generateSchemaForType(GenerationContext context, ObjectNode schema, TypeModel model,
+            Optional<AttributeHolder> attributes) {
+        if (context.isEnclosingType(model.type())) {
+            throw new IllegalStateException("Recursion detected, not supported!");
         }
+
+        context.recordDependency(model.rawType());
+
+        handlers.get(model.kind()).generate(context, schema, model, attributes);
+        attributes.ifPresent(schemaAttributes -> augmentAttributes(schema, model, schemaAttributes));
     }
 
-    private Map<String, ObjectNode> findSchemaPropertiesFromMethods(Type type, ObjectNode parent) {
-        Map<String, ObjectNode> propertyMap = config.sortSchemaProperties() ? new TreeMap<>() : new LinkedHashMap<>();
+    private void generateSimpleType(GenerationContext context, ObjectNode schema, TypeModel model, Optional<AttributeHolder> attributes) {
+        Optional<String> overriddenType = attributes.isPresent()
+                ? attributes.get().type()
+                : Optional.empty();
 
-        TypeToken<?> typeToken = TypeToken.of(type);
+        // this is a cop-out, because only simple types can be overridden.
+        addTypeToSchema(schema, overriddenType.orElse(model.jsonType().get()));
+        // if a format hint exists, add that as well
+        model.formatHint().ifPresent(formatHint -> schema.put("format", formatHint));
+    }
 
-        for (TypeToken<?> implementingTypeToken : typeToken.getTypes()) {
-            Class<?> clazz = implementingTypeToken.getRawType();
+    private void generateCollection(GenerationContext context, ObjectNode schema, TypeModel model, Optional<AttributeHolder> attributes) {
+        addTypeToSchema(schema, "array");
+        augmentItems(context, schema, model.itemType().get());
+    }
 
-            Method[] methods = clazz.getDeclaredMethods();
+    private void generateEnum(GenerationContext context, ObjectNode schema, TypeModel model, Optional<AttributeHolder> attributes) {
+        augmentSchemaWithEnum(model.rawType(), schema);
+    }
 
-            for (Method method : methods) {
-                Optional<AttributeHolder> attributeHolder = acceptMethod(method);
-                if (attributeHolder.isPresent()) {
-                    AttributeHolder attributes = attributeHolder.get();
-                    String propertyName = attributes.named().orElseGet(() -> propertyName(method));
+    private void generateObject(GenerationContext context, ObjectNode schema, TypeModel model, Optional<AttributeHolder> attributes) {
+        // enum annotations turn any object into an enum
+        if (isEnum(model, attributes)) {
+            generateEnum(context, schema, model, attributes);
+            return;
+        }
 
-                    if (propertyMap.containsKey(propertyName)) {
-                        throw new IllegalStateException(format(Locale.ENGLISH,
-                                "Property %s defined multiple times (saw %s)", propertyName, clazz.getSimpleName()));
-                    }
+        context.enterType(model.type());
+        try {
+            augmentSchemaWithCustomType(context, schema, model, attributes);
+        } finally {
+            context.exitType(model.type());
+        }
+    }
 
-                    if (attributes.required()) {
-                        addToRequired(parent, propertyName);
-                    }
+    private ObjectNode createSubschema(GenerationContext context, ObjectNode parent, Type type, Optional<AttributeHolder> attributes) {
+        if (parent instanceof SubschemaNode) {
+            // the parent is written as a stream, generate the subschema when it gets written.
+            return new SubschemaNode(nodeFactory, type, attributes, context.enclosingTypes());
+        } else if (parent instanceof LazySchemaNode) {
+            // generate the subschema when it is read.
+            ImmutableSet<Type> enclosingTypes = context.enclosingTypes();
+            return new LazySchemaNode(nodeFactory,
+                    schema -> createSchemaForType(GenerationContext.withEnclosingTypes(enclosingTypes), schema, type, attributes));
+        }
 
-                    if (attributes.ignored()) {
-                        continue;
-                    }
+        ObjectNode schema = nodeFactory.objectNode();
+        createSchemaForType(context, schema, type, attributes);
+        return schema;
+    }
+
+    private ObjectNode createSubschema(SubschemaNode placeholder) {
+        SubschemaNode schema = new SubschemaNode(nodeFactory, placeholder.type(), placeholder.attributes(), placeholder.enclosingTypes());
+        GenerationContext context = GenerationContext.withEnclosingTypes(placeholder.enclosingTypes());
+        createSchemaForType(context, schema, placeholder.type(), placeholder.attributes());
+        return schema;
+    }
 
-                    TypeToken<?> returnType = implementingTypeToken.resolveType(method.getGenericReturnType());
+    private void augmentSchemaWithEnum(Class<?> type, ObjectNode schema) {
+        // nullable properties add null to the array, so every schema gets its own copy.
+        schema.set("enum", enumArray(type).deepCopy());
+    }
 
-                    ObjectNode propertyNode = nodeFactory.objectNode();
-                    createSchemaForType(propertyNode, returnType.getType(), Optional.of(attributes));
-                    propertyMap.put(propertyName, propertyNode);
+    private ArrayNode enumArray(Class<?> type) {
+        ArrayNode enumArray = enumCache.getIfPresent(type);
+        if (enumArray == null) {
+            enumArray = nodeFactory.arrayNode();
+            for (Object value : ClassMetadata.forClass(type).enumValues()) {
+                if (value instanceof Long) {
+                    enumArray.add((Long) value);
+                } else if (value instanceof BigDecimal) {
+                    enumArray.add((BigDecimal) value);
+                } else {
+                    enumArray.add((String) value);
                 }
             }
+            enumCache.put(type, enumArray);
         }
+        return enumArray;
+    }
+
+    private void augmentSchemaWithCustomType(GenerationContext context, ObjectNode schema, TypeModel model,
+            Optional<AttributeHolder> attributeHolder) {
+        addTypeToSchema(schema, "object");
 
-        return propertyMap;
+        if (attributeHolder.isPresent()) {
+            if (attributeHolder.get().ignoredProperties()) {
+                return;
+            }
+        }
+
+        // placeholders, lazy nodes and references to definitions only belong to one schema.
+        if (context.definitions() == null && !(schema instanceof SubschemaNode) && !(schema instanceof LazySchemaNode)) {
+            SharedProperties properties = propertyFlights.get(model.type(), () -> createSharedProperties(context, model),
+                    SharedProperties::copy);
+            context.recordDependencies(properties.dependencies);
+            schema.setAll(properties.schema);
+        } else {
+            addProperties(context, schema, model);
+        }
     }
 
-    private Map<String, ObjectNode> findSchemaPropertiesFromFields(Type type, ObjectNode parent) {
-        Map<String, ObjectNode> propertyMap = config.sortSchemaProperties() ? new TreeMap<>() : new LinkedHashMap<>();
+    private SharedProperties createSharedProperties(GenerationContext context, TypeModel model) {
+        GenerationContext sharedContext = context.forSharedSchema(diskCache.isPresent());
+        ObjectNode schema = nodeFactory.objectNode();
+        addProperties(sharedContext, schema, model);
+        return new SharedProperties(schema, diskCache.isPresent() ? ImmutableSet.copyOf(sharedContext.dependencies()) : ImmutableSet.of());
+    }
 
-        TypeToken<?> typeToken = TypeToken.of(type);
+    private void addProperties(GenerationContext context, ObjectNode schema, TypeModel model) {
+        model.hierarchy().forEach(context::recordDependency);
 
-        for (TypeToken<?> implementingTypeToken : typeToken.getTypes()) {
-            Class<?> clazz = implementingTypeToken.getRawType();
+        if (config.processProperties()) {
+            addProperties(context, schema, model.methodProperties(listener));
+        }
 
-            Field[] fields = clazz.getDeclaredFields();
+        if (config.processFields()) {
+            addProperties(context, schema, model.fieldProperties(listener));
+        }
+    }
 
-            for (Field field : fields) {
-                Optional<AttributeHolder> attributeHolder = acceptField(field);
-                if (attributeHolder.isPresent()) {
-                    AttributeHolder attributes = attributeHolder.get();
-                    String propertyName = attributes.named().orElse(propertyName(field));
+    private void addProperties(GenerationContext context, ObjectNode schema, List<TypeModel.Property> properties) {
+        Map<String, ObjectNode> propertyMap = config.sortSchemaProperties() ? new TreeMap<>() : new LinkedHashMap<>();
 
-                    if (propertyMap.containsKey(propertyName)) {
-                        throw new IllegalStateException(format(Locale.ENGLISH,
-                                "Property %s defined multiple times (saw %s)", propertyName, field.getName()));
-                    }
-                    if (attributes.required()) {
-                        addToRequired(parent, propertyName);
-                    }
+        for (TypeModel.Property property : properties) {
+            if (property.attributes().required()) {
+                addToRequired(schema, property.name());
+            }
 
-                    if (attributes.ignored()) {
-                        continue;
-                    }
+            if (property.attributes().ignored()) {
+                continue;
+            }
 
-                    TypeToken fieldType = implementingTypeToken.resolveType(field.getGenericType());
+            propertyMap.put(property.name(), createSubschema(context, schema, property.type(), Optional.of(property.attributes())));
+        }
 
-                    ObjectNode propertyNode = nodeFactory.objectNode();
-                    createSchemaForType(propertyNode, fieldType.getType(), Optional.of(attributes));
-                    propertyMap.put(propertyName, propertyNode);
-                }
+        propertyMap.forEach((propertyName, objectNode) -> addToProperties(schema, propertyName, objectNode));
+    }
+
+    // The nodes of a subschema without the subschemas of properties and items, which are reported for their own types.
+    private static int countNodes(JsonNode schema) {
+        int count = 1;
+        for (Iterator<Map.Entry<String, JsonNode>> it = schema.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (field.getKey().equals("properties")) {
+                count++;
+            } else if (!field.getKey().equals("items")) {
+                count += countValueNodes(field.getValue());
             }
         }
+        return count;
+    }
 
-        return propertyMap;
+    private static int countValueNodes(JsonNode value) {
+        int count = 1;
+        for (JsonNode element : value) {
+            count += countValueNodes(element);
+        }
+        return count;
     }
 
-    private void augmentAttributes(ObjectNode schema, Type type, AttributeHolder schemaAttributes) {
-        schemaAttributes.augmentCommonAttributes(schema);
+    private void augmentAttributes(ObjectNode schema, TypeModel model, AttributeHolder schemaAttributes) {
+        schemaAttributes.augmentCommonAttributes(schema, config.draft());
         schemaAttributes.$ref().ifPresent($ref -> schema.put("$ref", $ref));
 
         if (!schemaAttributes.additionalProperties()) {
@@ -263,49 +747,39 @@ public final class JsonSchemaGenerator {
 
         // Check if the Nullable annotation is present, and if so, add 'null' to type attr
         if (schemaAttributes.nullable()) {
-            if (isEnum(type, Optional.of(schemaAttributes))) {
+            boolean isEnum = isEnum(model, Optional.of(schemaAttributes));
+            if (isEnum) {
                 ((ArrayNode) schema.get("enum")).addNull();
             }
-            addTypeToSchema(schema, "null");
+            // enum classes have no type, a null type would reject all constants.
+            if (!isEnum || schema.has("type")) {
+                addTypeToSchema(schema, "null");
+            }
         }
     }
 
-    private boolean isEnum(Type type, Optional<AttributeHolder> schemaAttributes) {
+    private static boolean isCustomType(TypeModel model, Optional<AttributeHolder> attributes) {
+        return (model.kind() == TypeKind.BEAN || model.kind() == TypeKind.MAP) && !isEnum(model, attributes);
+    }
+
+    private static boolean isEnum(TypeModel model, Optional<AttributeHolder> schemaAttributes) {
         // enum annotation enforces enum type
         if (schemaAttributes.isPresent() && !schemaAttributes.get().enums().isEmpty()) {
             return true;
         }
 
         // enum class type enforces enum type
-        if ((type instanceof Class && ((Class<?>) type).isEnum())) {
-            return true;
-        }
-
-        return false;
+        return model.kind() == TypeKind.ENUM;
     }
 
-    private void augmentSchemaWithCollection(ObjectNode schema, Type type) {
-        addTypeToSchema(schema, "array");
-
-        TypeToken typeToken = TypeToken.of(type);
-
-        if (typeToken.isArray()) {
-            augmentItems(schema, typeToken.getComponentType().getType());
-        } else {
-            Class<?> clazz = typeToken.getRawType();
-            checkState(clazz.getTypeParameters().length > 0, "No type arguments in return type found!");
-
-            Type itemType = typeToken.resolveType(clazz.getTypeParameters()[0]).getType();
-            augmentItems(schema, itemType);
-        }
+    public void augmentItems(ObjectNode schema, Type itemType) {
+        augmentItems(GenerationContext.create(), schema, itemType);
     }
 
-    public void augmentItems(ObjectNode schema, Type itemType) {
-        ObjectNode itemNode = nodeFactory.objectNode();
-        TypeToken typeToken = TypeToken.of(itemType);
-        Optional<AttributeHolder> itemAttributes = AttributeHolder.locate(typeToken.getRawType());
-        createSchemaForType(itemNode, itemType, itemAttributes);
-        schema.set("items", itemNode);
+    private void augmentItems(GenerationContext context, ObjectNode schema, Type itemType) {
+        Class<?> itemClass = TypeToken.of(itemType).getRawType();
+        Optional<AttributeHolder> itemAttributes = ClassMetadata.forClass(itemClass).attributes();
+        schema.set("items", createSubschema(context, schema, itemType, itemAttributes));
     }
 
     private void addToRequired(ObjectNode schema, String name) {
@@ -329,23 +803,18 @@ public final class JsonSchemaGenerator {
         propertiesNode.set(name, property);
     }
 
-    private String propertyName(AnnotatedElement element) {
+    /**
+     * The name of the property for an annotated field or method, if the annotations do not name it.
+     */
+    static String propertyName(AnnotatedElement element) {
         if (element instanceof Field) {
             // Field name should be the same as the exposed property. Good luck.
             return ((Field) element).getName();
         } else if (element instanceof Method) {
             Method method = (Method) element;
-            Class<?> clazz = method.getDeclaringClass();
-            try {
-                BeanInfo info = Introspector.getBeanInfo(clazz);
-                PropertyDescriptor[] props = info.getPropertyDescriptors();
-                for (PropertyDescriptor pd : props) {
-                    if (method.equals(pd.getWriteMethod()) || method.equals(pd.getReadMethod())) {
-                        return pd.getName();
-                    }
-                }
-            } catch (IntrospectionException e) {
-                throw new IllegalStateException(format(Locale.ENGLISH, "Could not locate property name for %s", method.getName()), e);
+            Optional<String> beanPropertyName = ClassMetadata.forClass(method.getDeclaringClass()).propertyName(method);
+            if (beanPropertyName.isPresent()) {
+                return beanPropertyName.get();
             }
 
             // getter style
@@ -377,4 +846,27 @@ public final class JsonSchemaGenerator {
             schema.put("type", type);
         }
     }
+
+    // generates the schema for a kind of type, see TypeKind.
+    @FunctionalInterface
+    private interface TypeHandler {
+
+        void generate(GenerationContext context, ObjectNode schema, TypeModel model, Optional<AttributeHolder> attributes);
+    }
+
+    // the required and properties fields of a custom type, with the classes that were used to generate them.
+    private static final class SharedProperties {
+
+        private final ObjectNode schema;
+        private final ImmutableSet<Class<?>> dependencies;
+
+        private SharedProperties(ObjectNode schema, ImmutableSet<Class<?>> dependencies) {
+            this.schema = schema;
+            this.dependencies = dependencies;
+        }
+
+        private SharedProperties copy() {
+            return new SharedProperties(schema.deepCopy(), dependencies);
+        }
+    }
 }
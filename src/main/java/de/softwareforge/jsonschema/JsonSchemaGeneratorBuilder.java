@@ -14,10 +14,12 @@
 
 package de.softwareforge.jsonschema;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
+import java.nio.file.Path;
 import java.util.function.Function;
 
 public final class JsonSchemaGeneratorBuilder {
@@ -26,7 +28,31 @@ public final class JsonSchemaGeneratorBuilder {
     }
 
     public static JsonSchemaGeneratorConfigurationBuilder draftV4Schema() {
-        return new JsonSchemaGeneratorConfigurationBuilder(JsonNodeFactory.instance, config -> new JsonSchemaGenerator(config));
+        return forDraft(SchemaDraft.DRAFT_04);
+    }
+
+    public static JsonSchemaGeneratorConfigurationBuilder draftV7Schema() {
+        return forDraft(SchemaDraft.DRAFT_07);
+    }
+
+    public static JsonSchemaGeneratorConfigurationBuilder draft201909Schema() {
+        return forDraft(SchemaDraft.DRAFT_2019_09);
+    }
+
+    public static JsonSchemaGeneratorConfigurationBuilder draft202012Schema() {
+        return forDraft(SchemaDraft.DRAFT_2020_12);
+    }
+
+    /**
+     * A generator for a json schema draft. Generators for different drafts share the reflective metadata of all types, so generating
+     * the schema of a type for another draft only renders it again.
+     */
+    public static JsonSchemaGeneratorConfigurationBuilder forDraft(SchemaDraft draft) {
+        checkNotNull(draft, "draft is null");
+        JsonSchemaGeneratorConfigurationBuilder configurationBuilder =
+                new JsonSchemaGeneratorConfigurationBuilder(JsonNodeFactory.instance, config -> new JsonSchemaGenerator(config));
+        configurationBuilder.builder.draft(draft);
+        return configurationBuilder;
     }
 
     public static class JsonSchemaGeneratorConfigurationBuilder {
@@ -65,6 +91,65 @@ public final class JsonSchemaGeneratorBuilder {
             return this;
         }
 
+        public JsonSchemaGeneratorConfigurationBuilder schemaCacheSize(long schemaCacheSize) {
+            checkArgument(schemaCacheSize >= 0, "schemaCacheSize must not be negative");
+            builder.schemaCacheSize(schemaCacheSize);
+            return this;
+        }
+
+        public JsonSchemaGeneratorConfigurationBuilder disableSchemaCache() {
+            builder.disableSchemaCache();
+            return this;
+        }
+
+        /**
+         * Use schemas that were generated at compile time by the annotation processor. Reflection is only used for types that have no
+         * precomputed schema or whose schema was generated with different settings.
+         */
+        public JsonSchemaGeneratorConfigurationBuilder usePrecomputedSchemas() {
+            builder.usePrecomputedSchemas();
+            return this;
+        }
+
+        /**
+         * Generate every object type only once into the {@code definitions} of the root schema and reference it with {@code $ref}
+         * everywhere else. This supports recursive types and keeps the schema small if types are used multiple times.
+         */
+        public JsonSchemaGeneratorConfigurationBuilder useDefinitions() {
+            builder.useDefinitions();
+            return this;
+        }
+
+        /**
+         * Share structurally equal subschemas and values between the schemas in the schema cache, e.g. every {@code {"type":"string"}},
+         * so large caches retain less heap. Schemas are still handed out as independent copies. Use an {@link InterningNodeFactory}
+         * to also share the values in these copies.
+         */
+        public JsonSchemaGeneratorConfigurationBuilder internSubschemas() {
+            builder.internSubschemas();
+            return this;
+        }
+
+        /**
+         * Store all generated root schemas in a directory and reuse them after a restart. A stored schema is only used as long as the
+         * byte code of the type and of all classes that were used to generate its schema is unchanged.
+         */
+        public JsonSchemaGeneratorConfigurationBuilder diskCache(Path directory) {
+            checkNotNull(directory, "directory is null");
+            builder.diskCacheDirectory(directory);
+            return this;
+        }
+
+        /**
+         * Report the work of the generator to a listener, e.g. a {@link GenerationCostListener}. Without a listener, the generator
+         * does not measure anything.
+         */
+        public JsonSchemaGeneratorConfigurationBuilder listener(GenerationListener listener) {
+            checkNotNull(listener, "listener is null");
+            builder.listener(listener);
+            return this;
+        }
+
         public final JsonSchemaGenerator build() {
             return factory.apply(builder.build());
         }
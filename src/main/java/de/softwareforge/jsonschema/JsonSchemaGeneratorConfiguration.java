@@ -17,16 +17,29 @@ package de.softwareforge.jsonschema;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.auto.value.AutoValue;
 
+import java.nio.file.Path;
+import java.util.Optional;
+
 @AutoValue
 public abstract class JsonSchemaGeneratorConfiguration {
 
+    /**
+     * Default number of root schemas that a generator keeps around for every class loader.
+     */
+    public static final long DEFAULT_SCHEMA_CACHE_SIZE = 1_000L;
+
     public static Builder builder() {
         return new AutoValue_JsonSchemaGeneratorConfiguration.Builder()
                 .setNodeFactory(JsonNodeFactory.instance)
                 .setSortSchemaProperties(true)
                 .setAddSchemaVersion(true)
                 .setProcessProperties(true)
-                .setProcessFields(false);
+                .setProcessFields(false)
+                .setSchemaCacheSize(DEFAULT_SCHEMA_CACHE_SIZE)
+                .setUsePrecomputedSchemas(false)
+                .setUseDefinitions(false)
+                .setInternSubschemas(false)
+                .setDraft(SchemaDraft.DRAFT_04);
     }
 
     public abstract JsonNodeFactory nodeFactory();
@@ -39,6 +52,20 @@ public abstract class JsonSchemaGeneratorConfiguration {
 
     public abstract boolean processFields();
 
+    public abstract long schemaCacheSize();
+
+    public abstract boolean usePrecomputedSchemas();
+
+    public abstract boolean useDefinitions();
+
+    public abstract boolean internSubschemas();
+
+    public abstract SchemaDraft draft();
+
+    public abstract Optional<Path> diskCacheDirectory();
+
+    public abstract Optional<GenerationListener> listener();
+
     @AutoValue.Builder
     public abstract static class Builder {
 
@@ -52,6 +79,20 @@ public abstract class JsonSchemaGeneratorConfiguration {
 
         abstract Builder setProcessFields(boolean processFieldsOnly);
 
+        abstract Builder setSchemaCacheSize(long schemaCacheSize);
+
+        abstract Builder setUsePrecomputedSchemas(boolean usePrecomputedSchemas);
+
+        abstract Builder setUseDefinitions(boolean useDefinitions);
+
+        abstract Builder setInternSubschemas(boolean internSubschemas);
+
+        abstract Builder setDraft(SchemaDraft draft);
+
+        abstract Builder setDiskCacheDirectory(Path diskCacheDirectory);
+
+        abstract Builder setListener(GenerationListener listener);
+
         public Builder removeSchemaVersion() {
             return setAddSchemaVersion(false);
         }
@@ -72,6 +113,38 @@ public abstract class JsonSchemaGeneratorConfiguration {
             return setNodeFactory(nodeFactory);
         }
 
+        public Builder schemaCacheSize(long schemaCacheSize) {
+            return setSchemaCacheSize(schemaCacheSize);
+        }
+
+        public Builder disableSchemaCache() {
+            return setSchemaCacheSize(0L);
+        }
+
+        public Builder usePrecomputedSchemas() {
+            return setUsePrecomputedSchemas(true);
+        }
+
+        public Builder useDefinitions() {
+            return setUseDefinitions(true);
+        }
+
+        public Builder internSubschemas() {
+            return setInternSubschemas(true);
+        }
+
+        public Builder draft(SchemaDraft draft) {
+            return setDraft(draft);
+        }
+
+        public Builder diskCacheDirectory(Path diskCacheDirectory) {
+            return setDiskCacheDirectory(diskCacheDirectory);
+        }
+
+        public Builder listener(GenerationListener listener) {
+            return setListener(listener);
+        }
+
         public abstract JsonSchemaGeneratorConfiguration build();
     }
 }
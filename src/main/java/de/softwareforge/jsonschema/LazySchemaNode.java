@@ -0,0 +1,358 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A schema node that is generated when it is first read, serialized or modified. Created by
+ * {@link JsonSchemaGenerator#generateLazySchema(Class)}; the subschemas of its properties and items are lazy nodes again.
+ * <p>
+ * Every method that looks at or changes the fields of the node generates them first, so a lazy node behaves like the
+ * node that {@link JsonSchemaGenerator#generateSchema(Class)} returns. Only {@link #equals(Object)} of a regular node
+ * does not see the fields of a lazy node that was never read; compare against {@link #deepCopy()}, which generates
+ * the whole schema and returns regular nodes. Generating a node is thread safe.
+ */
+// ObjectNode overrides the generic JsonNode.deepCopy() with a method that returns ObjectNode, so javac reports an unchecked
+// override for deepCopy() in every subclass. javac checks overrides for the class, the warning can not be suppressed on the method.
+@SuppressWarnings("unchecked")
+final class LazySchemaNode extends ObjectNode {
+
+    private volatile boolean materialized = false;
+
+    // only accessed while the lock is held. Released once the node is generated.
+    private Consumer<? super ObjectNode> generator;
+    private boolean materializing = false;
+
+    LazySchemaNode(JsonNodeFactory nodeFactory, Consumer<? super ObjectNode> generator) {
+        super(nodeFactory);
+        this.generator = checkNotNull(generator, "generator is null");
+    }
+
+    /**
+     * True if the fields of this node have been generated.
+     */
+    boolean isMaterialized() {
+        return materialized;
+    }
+
+    private void materialize() {
+        if (materialized) {
+            return;
+        }
+
+        synchronized (this) {
+            // the generator fills this node through the methods below
+            if (materialized || materializing) {
+                return;
+            }
+
+            materializing = true;
+            try {
+                generator.accept(this);
+                generator = null;
+                materialized = true;
+            } catch (RuntimeException | Error e) {
+                // a later access fails again instead of returning a partial schema
+                super.removeAll();
+                throw e;
+            } finally {
+                materializing = false;
+            }
+        }
+    }
+
+    @Override
+    protected JsonNode _at(JsonPointer ptr) {
+        materialize();
+        return super._at(ptr);
+    }
+
+    @Override
+    public ObjectNode deepCopy() {
+        materialize();
+        return super.deepCopy();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider serializers) {
+        materialize();
+        return super.isEmpty(serializers);
+    }
+
+    @Override
+    public int size() {
+        materialize();
+        return super.size();
+    }
+
+    @Override
+    public Iterator<JsonNode> elements() {
+        materialize();
+        return super.elements();
+    }
+
+    @Override
+    public JsonNode get(String fieldName) {
+        materialize();
+        return super.get(fieldName);
+    }
+
+    @Override
+    public Iterator<String> fieldNames() {
+        materialize();
+        return super.fieldNames();
+    }
+
+    @Override
+    public JsonNode path(String fieldName) {
+        materialize();
+        return super.path(fieldName);
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, JsonNode>> fields() {
+        materialize();
+        return super.fields();
+    }
+
+    @Override
+    public ObjectNode with(String propertyName) {
+        materialize();
+        return super.with(propertyName);
+    }
+
+    @Override
+    public ArrayNode withArray(String propertyName) {
+        materialize();
+        return super.withArray(propertyName);
+    }
+
+    @Override
+    public boolean equals(Comparator<JsonNode> comparator, JsonNode other) {
+        materialize();
+        return super.equals(comparator, materialized(other));
+    }
+
+    @Override
+    public JsonNode findValue(String fieldName) {
+        materialize();
+        return super.findValue(fieldName);
+    }
+
+    @Override
+    public List<JsonNode> findValues(String fieldName, List<JsonNode> foundSoFar) {
+        materialize();
+        return super.findValues(fieldName, foundSoFar);
+    }
+
+    @Override
+    public List<String> findValuesAsText(String fieldName, List<String> foundSoFar) {
+        materialize();
+        return super.findValuesAsText(fieldName, foundSoFar);
+    }
+
+    @Override
+    public ObjectNode findParent(String fieldName) {
+        materialize();
+        return super.findParent(fieldName);
+    }
+
+    @Override
+    public List<JsonNode> findParents(String fieldName, List<JsonNode> foundSoFar) {
+        materialize();
+        return super.findParents(fieldName, foundSoFar);
+    }
+
+    @Override
+    public void serialize(JsonGenerator g, SerializerProvider provider) throws IOException {
+        materialize();
+        super.serialize(g, provider);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator g, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        materialize();
+        super.serializeWithType(g, provider, typeSer);
+    }
+
+    @Override
+    public JsonNode set(String fieldName, JsonNode value) {
+        materialize();
+        return super.set(fieldName, value);
+    }
+
+    @Override
+    public JsonNode setAll(Map<String, ? extends JsonNode> properties) {
+        materialize();
+        return super.setAll(properties);
+    }
+
+    @Override
+    public JsonNode setAll(ObjectNode other) {
+        materialize();
+        return super.setAll(materialized(other));
+    }
+
+    @Override
+    public JsonNode replace(String fieldName, JsonNode value) {
+        materialize();
+        return super.replace(fieldName, value);
+    }
+
+    @Override
+    public JsonNode without(String fieldName) {
+        materialize();
+        return super.without(fieldName);
+    }
+
+    @Override
+    public ObjectNode without(Collection<String> fieldNames) {
+        materialize();
+        return super.without(fieldNames);
+    }
+
+    @Override
+    @Deprecated
+    public JsonNode put(String fieldName, JsonNode value) {
+        materialize();
+        return super.put(fieldName, value);
+    }
+
+    @Override
+    public JsonNode remove(String fieldName) {
+        materialize();
+        return super.remove(fieldName);
+    }
+
+    @Override
+    public ObjectNode remove(Collection<String> fieldNames) {
+        materialize();
+        return super.remove(fieldNames);
+    }
+
+    @Override
+    public ObjectNode removeAll() {
+        materialize();
+        return super.removeAll();
+    }
+
+    @Override
+    @Deprecated
+    public JsonNode putAll(Map<String, ? extends JsonNode> properties) {
+        materialize();
+        return super.putAll(properties);
+    }
+
+    @Override
+    @Deprecated
+    public JsonNode putAll(ObjectNode other) {
+        materialize();
+        return super.putAll(materialized(other));
+    }
+
+    @Override
+    public ObjectNode retain(Collection<String> fieldNames) {
+        materialize();
+        return super.retain(fieldNames);
+    }
+
+    @Override
+    public ArrayNode putArray(String fieldName) {
+        materialize();
+        return super.putArray(fieldName);
+    }
+
+    @Override
+    public ObjectNode putObject(String fieldName) {
+        materialize();
+        return super.putObject(fieldName);
+    }
+
+    @Override
+    public ObjectNode putPOJO(String fieldName, Object pojo) {
+        materialize();
+        return super.putPOJO(fieldName, pojo);
+    }
+
+    @Override
+    public ObjectNode putRawValue(String fieldName, RawValue raw) {
+        materialize();
+        return super.putRawValue(fieldName, raw);
+    }
+
+    @Override
+    public ObjectNode putNull(String fieldName) {
+        materialize();
+        return super.putNull(fieldName);
+    }
+
+    @Override
+    protected ObjectNode _put(String fieldName, JsonNode value) {
+        // all typed put() methods end up here
+        materialize();
+        return super._put(fieldName, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        materialize();
+        return super.equals(materialized(o));
+    }
+
+    @Override
+    protected boolean _childrenEqual(ObjectNode other) {
+        materialize();
+        return super._childrenEqual(materialized(other));
+    }
+
+    @Override
+    public int hashCode() {
+        materialize();
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        materialize();
+        return super.toString();
+    }
+
+    // regular nodes read the fields of other nodes directly
+    private static <T> T materialized(T node) {
+        if (node instanceof LazySchemaNode) {
+            ((LazySchemaNode) node).materialize();
+        }
+        return node;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates java objects against the schema of their type, without serializing them. Created by
+ * {@link JsonSchemaGenerator#generateObjectValidator(Class)}.
+ * <p>
+ * Properties are read with method handles that are resolved once per class. A property that is null is treated as missing,
+ * unless it is {@link de.softwareforge.jsonschema.annotations.Nullable}. Values of types that the schema describes as strings
+ * (e.g. dates or uris) are validated by their {@code toString()} value. A validator is immutable and can be shared between
+ * threads.
+ *
+ * @param <T> The validated type.
+ */
+public final class ObjectValidator<T> {
+
+    private final BoundSchema schema;
+
+    ObjectValidator(BoundSchema schema) {
+        this.schema = checkNotNull(schema, "schema is null");
+    }
+
+    /**
+     * Validates an object and reports all errors.
+     */
+    public ValidationResult validate(T value) {
+        checkNotNull(value, "value is null");
+
+        List<ValidationError> errors = new ArrayList<>();
+        schema.validate(value, InstancePath.ROOT, errors);
+        return ValidationResult.create(errors);
+    }
+
+    /**
+     * Returns true if an object is valid. Stops at the first error.
+     */
+    public boolean isValid(T value) {
+        checkNotNull(value, "value is null");
+
+        return schema.validate(value, null, null);
+    }
+}
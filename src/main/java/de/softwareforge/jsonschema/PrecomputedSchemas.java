@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Schemas that were generated at compile time. Every schema is stored as a class path resource next to its type,
+ * together with the generator settings that were used to create it. The generator only uses a precomputed schema
+ * if these settings match its own configuration.
+ */
+public final class PrecomputedSchemas {
+
+    /**
+     * Location of all precomputed schemas on the class path.
+     */
+    public static final String RESOURCE_LOCATION = "META-INF/jsonschema/";
+
+    /**
+     * File suffix of a precomputed schema resource.
+     */
+    public static final String RESOURCE_SUFFIX = ".json";
+
+    public static final String PROCESS_PROPERTIES = "processProperties";
+    public static final String PROCESS_FIELDS = "processFields";
+    public static final String SORT_SCHEMA_PROPERTIES = "sortSchemaProperties";
+    public static final String SCHEMA = "schema";
+
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    private PrecomputedSchemas() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the resource name of the precomputed schema for a type.
+     *
+     * @param binaryName The binary name of the type, as returned by {@link Class#getName()}.
+     */
+    public static String resourceName(String binaryName) {
+        return RESOURCE_LOCATION + binaryName + RESOURCE_SUFFIX;
+    }
+
+    static Optional<ObjectNode> load(Class<?> type, JsonSchemaGeneratorConfiguration config) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            // system classes never have precomputed schemas
+            return Optional.empty();
+        }
+
+        URL resource = classLoader.getResource(resourceName(type.getName()));
+        if (resource == null) {
+            return Optional.empty();
+        }
+
+        try (InputStream in = resource.openStream()) {
+            JsonNode precomputed = READER.with(config.nodeFactory()).readTree(in);
+            if (precomputed.path(PROCESS_PROPERTIES).asBoolean(true) != config.processProperties()
+                    || precomputed.path(PROCESS_FIELDS).asBoolean(false) != config.processFields()
+                    || precomputed.path(SORT_SCHEMA_PROPERTIES).asBoolean(true) != config.sortSchemaProperties()
+                    || !precomputed.path(SCHEMA).isObject()) {
+                return Optional.empty();
+            }
+            return Optional.of((ObjectNode) precomputed.get(SCHEMA));
+        } catch (IOException e) {
+            throw new UncheckedIOException(format(Locale.ENGLISH, "Could not read precomputed schema %s", resource), e);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A file with the canonical schemas of many types, indexed by type name and by fingerprint. Written by
+ * {@link JsonSchemaGenerator#exportArchive(java.util.Collection, Path)}.
+ * <p>
+ * The file is memory-mapped. Opening an archive only reads its header and schemas are parsed when they are requested, so only
+ * schemas that are used take up heap. The index entries are checked when they are read, a damaged archive fails the lookups that
+ * touch the damaged entries with an {@link UncheckedIOException}. Every call parses the schema again, callers that use a schema often should keep it.
+ * Archives can be read from multiple threads.
+ */
+public final class SchemaArchive {
+
+    // "JSCA"
+    private static final int MAGIC = 0x4a534341;
+
+    // increase when the format of the archive changes.
+    private static final int FORMAT_VERSION = 1;
+
+    // magic, version and number of entries.
+    private static final int HEADER_SIZE = 12;
+
+    private static final int FINGERPRINT_SIZE = 32;
+
+    // offset and length of the type name and the schema, and the fingerprint. Sorted by the UTF-8 bytes of the type names.
+    private static final int ENTRY_SIZE = 16 + FINGERPRINT_SIZE;
+
+    // Layout: header, entries, the entry numbers sorted by fingerprint, then the type names and schemas. Integers are big-endian.
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int fingerprintIndexOffset;
+    private final int dataOffset;
+    private final ObjectMapper mapper;
+
+    private SchemaArchive(Path file, ByteBuffer buffer, int size, JsonNodeFactory nodeFactory) {
+        this.file = file;
+        this.buffer = buffer;
+        this.size = size;
+        this.fingerprintIndexOffset = HEADER_SIZE + size * ENTRY_SIZE;
+        this.dataOffset = fingerprintIndexOffset + size * 4;
+        this.mapper = new ObjectMapper().setNodeFactory(nodeFactory);
+    }
+
+    /**
+     * Opens an archive. Schemas are parsed with the default node factory.
+     */
+    public static SchemaArchive open(Path file) throws IOException {
+        return open(file, JsonNodeFactory.instance);
+    }
+
+    /**
+     * Opens an archive. Schemas are parsed with the given node factory, use the node factory of the generator that exported the archive
+     * to get the same schemas.
+     */
+    public static SchemaArchive open(Path file, JsonNodeFactory nodeFactory) throws IOException {
+        checkNotNull(file, "file is null");
+        checkNotNull(nodeFactory, "nodeFactory is null");
+
+        ByteBuffer buffer;
+        // the mapping stays valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException(format(Locale.ENGLISH, "%s is not a schema archive", file));
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize).asReadOnlyBuffer();
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(format(Locale.ENGLISH, "%s is not a schema archive", file));
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(format(Locale.ENGLISH, "Schema archive %s has unsupported version %d", file, buffer.getInt(4)));
+        }
+        int size = buffer.getInt(8);
+        if (size < 0 || HEADER_SIZE + (long) size * (ENTRY_SIZE + 4) > buffer.capacity()) {
+            throw new IOException(format(Locale.ENGLISH, "Schema archive %s is truncated", file));
+        }
+
+        return new SchemaArchive(file, buffer, size, nodeFactory);
+    }
+
+    /**
+     * The number of schemas in the archive.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The names of all types in the archive. Reads the complete index.
+     */
+    public ImmutableList<String> typeNames() {
+        ImmutableList.Builder<String> typeNames = ImmutableList.builder();
+        for (int entry = 0; entry < size; entry++) {
+            typeNames.add(UTF_8.decode(slice(entry, 0)).toString());
+        }
+        return typeNames.build();
+    }
+
+    /**
+     * Parses the schema for a type.
+     *
+     * @param typeName The binary name of the type, as returned by {@link Class#getName()}.
+     */
+    public Optional<ObjectNode> schema(String typeName) {
+        return bytes(typeName).map(this::parse);
+    }
+
+    /**
+     * Parses the schema with a fingerprint. Types with equal schemas share the fingerprint.
+     *
+     * @see CanonicalSchema#fingerprint()
+     */
+    public Optional<ObjectNode> schema(HashCode fingerprint) {
+        checkNotNull(fingerprint, "fingerprint is null");
+
+        int entry = findFingerprint(fingerprint.asBytes());
+        return entry < 0 ? Optional.empty() : Optional.of(parse(slice(entry, 8)));
+    }
+
+    /**
+     * The fingerprint of the schema for a type.
+     *
+     * @param typeName The binary name of the type, as returned by {@link Class#getName()}.
+     */
+    public Optional<HashCode> fingerprint(String typeName) {
+        int entry = findTypeName(typeName);
+        return entry < 0 ? Optional.empty() : Optional.of(HashCode.fromBytes(fingerprint(entry)));
+    }
+
+    /**
+     * The canonical form of the schema for a type, without copying or parsing it. The buffer is read-only.
+     *
+     * @param typeName The binary name of the type, as returned by {@link Class#getName()}.
+     */
+    public Optional<ByteBuffer> bytes(String typeName) {
+        int entry = findTypeName(typeName);
+        return entry < 0 ? Optional.empty() : Optional.of(slice(entry, 8));
+    }
+
+    private ObjectNode parse(ByteBuffer schema) {
+        try (InputStream in = new ByteBufferBackedInputStream(schema)) {
+            return (ObjectNode) mapper.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived schema", e);
+        }
+    }
+
+    private int findTypeName(String typeName) {
+        checkNotNull(typeName, "typeName is null");
+
+        byte[] name = typeName.getBytes(UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareTypeName(middle, name);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int findFingerprint(byte[] fingerprint) {
+        if (fingerprint.length != FINGERPRINT_SIZE) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = buffer.getInt(fingerprintIndexOffset + middle * 4);
+            if (entry < 0 || entry >= size) {
+                throw damaged("has an invalid fingerprint index");
+            }
+            int comparison = compareBytes(entryOffset(entry) + 16, FINGERPRINT_SIZE, fingerprint);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int compareTypeName(int entry, byte[] name) {
+        checkEntry(entry, 0);
+        int offset = entryOffset(entry);
+        return compareBytes(buffer.getInt(offset), buffer.getInt(offset + 4), name);
+    }
+
+    // compares like UnsignedBytes.lexicographicalComparator(), which sorts the archive.
+    private int compareBytes(int offset, int length, byte[] bytes) {
+        int commonLength = Math.min(length, bytes.length);
+        for (int i = 0; i < commonLength; i++) {
+            int comparison = UnsignedBytes.compare(buffer.get(offset + i), bytes[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - bytes.length;
+    }
+
+    private byte[] fingerprint(int entry) {
+        byte[] fingerprint = new byte[FINGERPRINT_SIZE];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(entryOffset(entry) + 16);
+        duplicate.get(fingerprint);
+        return fingerprint;
+    }
+
+    // the type name (field 0) or the schema (field 8) of an entry.
+    private ByteBuffer slice(int entry, int field) {
+        checkEntry(entry, field);
+        int offset = buffer.getInt(entryOffset(entry) + field);
+        int length = buffer.getInt(entryOffset(entry) + field + 4);
+
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice();
+    }
+
+    // the header guarantees that the index is inside of the file, only the offsets of the data need to be checked.
+    private void checkEntry(int entry, int field) {
+        int offset = buffer.getInt(entryOffset(entry) + field);
+        int length = buffer.getInt(entryOffset(entry) + field + 4);
+        if (offset < dataOffset || length < 0 || (long) offset + length > buffer.limit()) {
+            throw damaged(format(Locale.ENGLISH, "has an invalid entry %d", entry));
+        }
+    }
+
+    private UncheckedIOException damaged(String problem) {
+        return new UncheckedIOException(new IOException(format(Locale.ENGLISH, "Schema archive %s %s", file, problem)));
+    }
+
+    private static int entryOffset(int entry) {
+        return HEADER_SIZE + entry * ENTRY_SIZE;
+    }
+
+    /**
+     * Writes an archive. The file is replaced atomically, so readers that open it concurrently see either the old or the new archive.
+     *
+     * @param schemas The canonical schemas by type name.
+     */
+    static void write(Map<String, CanonicalSchema> schemas, Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>(schemas.size());
+        schemas.forEach((typeName, schema) -> entries.add(new Entry(typeName.getBytes(UTF_8), schema)));
+        entries.sort(Comparator.comparing(entry -> entry.name, UnsignedBytes.lexicographicalComparator()));
+
+        List<Integer> fingerprintIndex = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            fingerprintIndex.add(i);
+        }
+        fingerprintIndex.sort(Comparator.comparing(i -> entries.get(i).schema.fingerprint().asBytes(), UnsignedBytes.lexicographicalComparator()));
+
+        long fileSize = HEADER_SIZE + (long) entries.size() * (ENTRY_SIZE + 4);
+        for (Entry entry : entries) {
+            fileSize += entry.name.length + entry.schema.size();
+        }
+        checkArgument(fileSize <= Integer.MAX_VALUE, "Schema archive would be larger than 2 GB, export fewer types");
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+
+                int dataOffset = HEADER_SIZE + entries.size() * (ENTRY_SIZE + 4);
+                for (Entry entry : entries) {
+                    out.writeInt(dataOffset);
+                    out.writeInt(entry.name.length);
+                    dataOffset += entry.name.length;
+                    out.writeInt(dataOffset);
+                    out.writeInt(entry.schema.size());
+                    dataOffset += entry.schema.size();
+                    out.write(entry.schema.fingerprint().asBytes());
+                }
+                for (int entry : fingerprintIndex) {
+                    out.writeInt(entry);
+                }
+                for (Entry entry : entries) {
+                    out.write(entry.name);
+                    entry.schema.writeTo(out);
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] name;
+        private final CanonicalSchema schema;
+
+        private Entry(byte[] name, CanonicalSchema schema) {
+            this.name = name;
+            this.schema = schema;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Duration;
+
+/**
+ * The result of generating schemas for multiple types. Every type is either present in {@link #schemas()} or in {@link #failures()}.
+ */
+@AutoValue
+public abstract class SchemaBatchResult {
+
+    static Builder builder() {
+        return new AutoValue_SchemaBatchResult.Builder();
+    }
+
+    /**
+     * All schemas that were generated successfully, in the order of the requested types.
+     */
+    public abstract ImmutableMap<Class<?>, ObjectNode> schemas();
+
+    /**
+     * The exception for every type whose schema could not be generated, in the order of the requested types.
+     */
+    public abstract ImmutableMap<Class<?>, Throwable> failures();
+
+    /**
+     * The time that was spent to generate the schema for every type, including the types that failed.
+     */
+    public abstract ImmutableMap<Class<?>, Duration> timings();
+
+    public boolean hasFailures() {
+        return !failures().isEmpty();
+    }
+
+    @AutoValue.Builder
+    abstract static class Builder {
+
+        abstract ImmutableMap.Builder<Class<?>, ObjectNode> schemasBuilder();
+
+        abstract ImmutableMap.Builder<Class<?>, Throwable> failuresBuilder();
+
+        abstract ImmutableMap.Builder<Class<?>, Duration> timingsBuilder();
+
+        abstract SchemaBatchResult build();
+    }
+}
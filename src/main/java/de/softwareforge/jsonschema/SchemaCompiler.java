@@ -0,0 +1,340 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a json schema into a tree of {@link CompiledSchema} objects.
+ * <p>
+ * Supports all keywords that the {@link JsonSchemaGenerator} produces and the other validation keywords that can be checked
+ * in a single pass over a value. References must point into the same schema, e.g. {@code #/definitions/Address}. Keywords next
+ * to a reference are ignored up to draft 7 and apply together with the reference in later drafts.
+ */
+final class SchemaCompiler {
+
+    // these keywords need to look at a value more than once, so they are not supported.
+    private static final Set<String> UNSUPPORTED_KEYWORDS = ImmutableSet.of("allOf", "anyOf", "oneOf", "not", "dependencies",
+            "patternProperties", "additionalItems");
+
+    // the keywords that are checked, other keywords (e.g. descriptions) next to a reference do not change the result.
+    private static final Set<String> VALIDATION_KEYWORDS = ImmutableSet.of("type", "enum", "minLength", "maxLength", "pattern",
+            "minimum", "maximum", "exclusiveMinimum", "exclusiveMaximum", "multipleOf", "items", "minItems", "maxItems",
+            "uniqueItems", "properties", "required", "additionalProperties", "minProperties", "maxProperties");
+
+    private static final Joiner TYPE_JOINER = Joiner.on(", ");
+
+    private final JsonNode root;
+    private final SchemaDraft draft;
+
+    // every schema node is compiled once, so references to the same node share the compiled schema. This also resolves
+    // recursive references.
+    private final Map<JsonNode, CompiledSchema> compiledSchemas = new IdentityHashMap<>();
+
+    private SchemaCompiler(JsonNode root, SchemaDraft draft) {
+        this.root = root;
+        this.draft = draft;
+    }
+
+    /**
+     * Compiles a schema for the draft of its {@code $schema} keyword, or for draft 4 if it has none.
+     */
+    static CompiledSchema compile(JsonNode schema) {
+        checkNotNull(schema, "schema is null");
+        SchemaDraft draft = SchemaDraft.forSchemaUri(schema.path("$schema").asText()).orElse(SchemaDraft.DRAFT_04);
+        return compile(schema, draft);
+    }
+
+    static CompiledSchema compile(JsonNode schema, SchemaDraft draft) {
+        checkNotNull(schema, "schema is null");
+        checkNotNull(draft, "draft is null");
+        return new SchemaCompiler(schema, draft).compile(schema, "#");
+    }
+
+    private CompiledSchema compile(JsonNode schema, String location) {
+        if (!schema.isObject()) {
+            throw new IllegalArgumentException(format(Locale.ENGLISH, "Schema at %s is not an object", location));
+        }
+
+        // up to draft 7, all other keywords next to a reference are ignored.
+        if (schema.has("$ref")) {
+            JsonNode target = resolveReference(schema, location);
+            if (!draft.referenceSiblings() || !hasValidationKeywords(schema)) {
+                return compile(target, schema.get("$ref").asText());
+            }
+        }
+
+        CompiledSchema compiledSchema = compiledSchemas.get(schema);
+        if (compiledSchema != null) {
+            return compiledSchema;
+        }
+
+        compiledSchema = new CompiledSchema();
+        compiledSchemas.put(schema, compiledSchema);
+
+        for (Iterator<String> it = schema.fieldNames(); it.hasNext(); ) {
+            String keyword = it.next();
+            if (UNSUPPORTED_KEYWORDS.contains(keyword)) {
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "Keyword '%s' at %s is not supported", keyword, location));
+            }
+        }
+
+        compileType(compiledSchema, schema, location);
+        compileEnum(compiledSchema, schema, location);
+        compileString(compiledSchema, schema, location);
+        compileNumber(compiledSchema, schema, location);
+        compileArray(compiledSchema, schema, location);
+        compileObject(compiledSchema, schema, location);
+
+        if (schema.has("$ref")) {
+            // a value must match the referenced schema and the other keywords.
+            String reference = schema.get("$ref").asText();
+            compiledSchema.reference = compile(resolve(reference, location), reference);
+        }
+
+        return compiledSchema;
+    }
+
+    private static boolean hasValidationKeywords(JsonNode schema) {
+        for (Iterator<String> it = schema.fieldNames(); it.hasNext(); ) {
+            String keyword = it.next();
+            if (VALIDATION_KEYWORDS.contains(keyword) || UNSUPPORTED_KEYWORDS.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private JsonNode resolveReference(JsonNode schema, String location) {
+        Set<String> seenReferences = new HashSet<>();
+        JsonNode target = schema;
+        while (target.has("$ref")) {
+            String reference = target.get("$ref").asText();
+            if (!seenReferences.add(reference)) {
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "Reference %s at %s is circular", reference, location));
+            }
+            target = resolve(reference, location);
+        }
+        return target;
+    }
+
+    private JsonNode resolve(String reference, String location) {
+        if (!reference.startsWith("#")) {
+            throw new IllegalArgumentException(format(Locale.ENGLISH,
+                    "Reference %s at %s does not point into the schema", reference, location));
+        }
+
+        JsonNode target = reference.length() == 1 ? root : root.at(JsonPointer.compile(reference.substring(1)));
+        if (target.isMissingNode()) {
+            throw new IllegalArgumentException(format(Locale.ENGLISH, "Reference %s at %s does not exist", reference, location));
+        }
+        return target;
+    }
+
+    private void compileType(CompiledSchema compiledSchema, JsonNode schema, String location) {
+        JsonNode typeNode = schema.get("type");
+        if (typeNode == null) {
+            return;
+        }
+
+        Set<InstanceType> types = EnumSet.noneOf(InstanceType.class);
+        if (typeNode.isArray()) {
+            for (JsonNode element : typeNode) {
+                types.add(InstanceType.forSchemaName(text(element, "type", location)));
+            }
+        } else {
+            types.add(InstanceType.forSchemaName(text(typeNode, "type", location)));
+        }
+
+        compiledSchema.typeNames = TYPE_JOINER.join(types.stream().map(InstanceType::schemaName).iterator());
+
+        // every integer is also a number
+        if (types.contains(InstanceType.NUMBER)) {
+            types.add(InstanceType.INTEGER);
+        }
+        compiledSchema.types = Sets.immutableEnumSet(types);
+    }
+
+    private void compileEnum(CompiledSchema compiledSchema, JsonNode schema, String location) {
+        JsonNode enumNode = schema.get("enum");
+        if (enumNode == null) {
+            return;
+        }
+        if (!enumNode.isArray()) {
+            throw invalidKeyword("enum", location);
+        }
+
+        ImmutableSet.Builder<JsonNode> enums = ImmutableSet.builder();
+        for (JsonNode value : enumNode) {
+            enums.add(CompiledSchema.normalize(value));
+        }
+        compiledSchema.enums = enums.build();
+    }
+
+    private void compileString(CompiledSchema compiledSchema, JsonNode schema, String location) {
+        if (schema.has("minLength")) {
+            compiledSchema.minLength = nonNegativeInt(schema.get("minLength"), "minLength", location);
+        }
+        if (schema.has("maxLength")) {
+            compiledSchema.maxLength = nonNegativeInt(schema.get("maxLength"), "maxLength", location);
+        }
+        if (schema.has("pattern")) {
+            String pattern = text(schema.get("pattern"), "pattern", location);
+            try {
+                compiledSchema.pattern = Pattern.compile(pattern);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "Invalid pattern '%s' at %s", pattern, location), e);
+            }
+        }
+    }
+
+    private void compileNumber(CompiledSchema compiledSchema, JsonNode schema, String location) {
+        if (schema.has("minimum")) {
+            compiledSchema.minimum = new CompiledSchema.Bound(number(schema.get("minimum"), "minimum", location),
+                    schema.path("exclusiveMinimum").asBoolean(false));
+        }
+        // since draft 6, exclusive bounds are numbers. The stricter bound applies if both are present.
+        if (schema.path("exclusiveMinimum").isNumber()) {
+            BigDecimal exclusiveMinimum = schema.get("exclusiveMinimum").decimalValue();
+            if (compiledSchema.minimum == null || exclusiveMinimum.compareTo(compiledSchema.minimum.value()) >= 0) {
+                compiledSchema.minimum = new CompiledSchema.Bound(exclusiveMinimum, true);
+            }
+        }
+        if (schema.has("maximum")) {
+            compiledSchema.maximum = new CompiledSchema.Bound(number(schema.get("maximum"), "maximum", location),
+                    schema.path("exclusiveMaximum").asBoolean(false));
+        }
+        if (schema.path("exclusiveMaximum").isNumber()) {
+            BigDecimal exclusiveMaximum = schema.get("exclusiveMaximum").decimalValue();
+            if (compiledSchema.maximum == null || exclusiveMaximum.compareTo(compiledSchema.maximum.value()) <= 0) {
+                compiledSchema.maximum = new CompiledSchema.Bound(exclusiveMaximum, true);
+            }
+        }
+        if (schema.has("multipleOf")) {
+            BigDecimal multipleOf = number(schema.get("multipleOf"), "multipleOf", location);
+            if (multipleOf.signum() <= 0) {
+                throw invalidKeyword("multipleOf", location);
+            }
+            compiledSchema.multipleOf = multipleOf;
+            compiledSchema.integralMultipleOf = CompiledSchema.isLong(multipleOf) ? multipleOf.longValue() : 0L;
+        }
+    }
+
+    private void compileArray(CompiledSchema compiledSchema, JsonNode schema, String location) {
+        if (schema.has("minItems")) {
+            compiledSchema.minItems = nonNegativeInt(schema.get("minItems"), "minItems", location);
+        }
+        if (schema.has("maxItems")) {
+            compiledSchema.maxItems = nonNegativeInt(schema.get("maxItems"), "maxItems", location);
+        }
+        compiledSchema.uniqueItems = schema.path("uniqueItems").asBoolean(false);
+
+        JsonNode items = schema.get("items");
+        if (items != null) {
+            if (items.isArray()) {
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "Tuple items at %s are not supported", location));
+            }
+            compiledSchema.items = compile(items, location + "/items");
+        }
+    }
+
+    private void compileObject(CompiledSchema compiledSchema, JsonNode schema, String location) {
+        if (schema.has("minProperties")) {
+            compiledSchema.minProperties = nonNegativeInt(schema.get("minProperties"), "minProperties", location);
+        }
+        if (schema.has("maxProperties")) {
+            compiledSchema.maxProperties = nonNegativeInt(schema.get("maxProperties"), "maxProperties", location);
+        }
+
+        JsonNode required = schema.get("required");
+        if (required != null) {
+            if (!required.isArray()) {
+                throw invalidKeyword("required", location);
+            }
+            ImmutableList.Builder<String> names = ImmutableList.builder();
+            for (JsonNode name : required) {
+                names.add(text(name, "required", location));
+            }
+            compiledSchema.required = names.build();
+        }
+
+        JsonNode properties = schema.get("properties");
+        if (properties != null) {
+            if (!properties.isObject()) {
+                throw invalidKeyword("properties", location);
+            }
+            ImmutableMap.Builder<String, CompiledSchema> propertySchemas = ImmutableMap.builder();
+            for (Iterator<Map.Entry<String, JsonNode>> it = properties.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> property = it.next();
+                propertySchemas.put(property.getKey(), compile(property.getValue(), location + "/properties/" + property.getKey()));
+            }
+            compiledSchema.properties = propertySchemas.build();
+        }
+
+        JsonNode additionalProperties = schema.get("additionalProperties");
+        if (additionalProperties == null || (additionalProperties.isBoolean() && additionalProperties.booleanValue())) {
+            compiledSchema.additionalProperties = CompiledSchema.ANY;
+        } else if (additionalProperties.isObject()) {
+            compiledSchema.additionalProperties = compile(additionalProperties, location + "/additionalProperties");
+        } else if (!additionalProperties.isBoolean()) {
+            throw invalidKeyword("additionalProperties", location);
+        }
+    }
+
+    private static String text(JsonNode node, String keyword, String location) {
+        if (!node.isTextual()) {
+            throw invalidKeyword(keyword, location);
+        }
+        return node.textValue();
+    }
+
+    private static BigDecimal number(JsonNode node, String keyword, String location) {
+        if (!node.isNumber()) {
+            throw invalidKeyword(keyword, location);
+        }
+        return node.decimalValue();
+    }
+
+    private static int nonNegativeInt(JsonNode node, String keyword, String location) {
+        if (!node.canConvertToInt() || !node.isIntegralNumber() || node.intValue() < 0) {
+            throw invalidKeyword(keyword, location);
+        }
+        return node.intValue();
+    }
+
+    private static IllegalArgumentException invalidKeyword(String keyword, String location) {
+        return new IllegalArgumentException(format(Locale.ENGLISH, "Invalid value for '%s' at %s", keyword, location));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps track of the definitions of a single root schema. Every type is defined once and referenced by name.
+ * <p>
+ * A definition is keyed by its type and the attributes of the place where it is used, because attributes such as
+ * {@code additionalProperties} change the subschema itself. Types that are used with the same attributes share a definition.
+ */
+final class SchemaDefinitions {
+
+    private static final String ROOT_REFERENCE = "#";
+
+    private static final AttributeHolder NO_ATTRIBUTES = AttributeHolder.builder().build();
+
+    private final Map<Map.Entry<Type, Optional<AttributeHolder>>, String> references = new HashMap<>();
+    private final Set<String> names = new HashSet<>();
+    private final Deque<Definition> pendingDefinitions = new ArrayDeque<>();
+    private final String keyword;
+    private final String referencePrefix;
+
+    /**
+     * @param keyword The keyword of the definitions in the root schema, which depends on the draft.
+     */
+    SchemaDefinitions(Type rootType, Optional<AttributeHolder> rootAttributes, String keyword) {
+        this.keyword = checkNotNull(keyword, "keyword is null");
+        this.referencePrefix = "#/" + keyword + "/";
+
+        // the root schema is referenced directly
+        references.put(Maps.immutableEntry(rootType, definitionAttributes(rootAttributes)), ROOT_REFERENCE);
+    }
+
+    /**
+     * Returns the reference for a type. Adds a new definition if the type was not referenced before.
+     */
+    String reference(Type type, Optional<AttributeHolder> attributes) {
+        return references.computeIfAbsent(Maps.immutableEntry(type, definitionAttributes(attributes)), key -> {
+            String name = uniqueName(type);
+            pendingDefinitions.add(new Definition(name, type, key.getValue()));
+            return referencePrefix + name;
+        });
+    }
+
+    /**
+     * The keyword of the definitions in the root schema.
+     */
+    String keyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the next definition that has been referenced but not yet generated.
+     */
+    Optional<Definition> nextPendingDefinition() {
+        return Optional.ofNullable(pendingDefinitions.poll());
+    }
+
+    private static Optional<AttributeHolder> definitionAttributes(Optional<AttributeHolder> attributes) {
+        // required, named and ignored only change the enclosing schema.
+        return attributes.map(attributeHolder -> attributeHolder.toBuilder()
+                .required(false)
+                .ignored(false)
+                .named(Optional.empty())
+                .build())
+                .filter(attributeHolder -> !attributeHolder.equals(NO_ATTRIBUTES));
+    }
+
+    private String uniqueName(Type type) {
+        String baseName = baseName(TypeToken.of(type).getRawType());
+        String name = baseName;
+        for (int i = 2; !names.add(name); i++) {
+            name = baseName + i;
+        }
+        return name;
+    }
+
+    private static String baseName(Class<?> type) {
+        if (type.isArray()) {
+            return baseName(type.getComponentType()) + "Array";
+        }
+        // anonymous classes have no simple name
+        return type.getSimpleName().isEmpty() ? "Type" : type.getSimpleName();
+    }
+
+    static final class Definition {
+
+        private final String name;
+        private final Type type;
+        private final Optional<AttributeHolder> attributes;
+
+        private Definition(String name, Type type, Optional<AttributeHolder> attributes) {
+            this.name = checkNotNull(name, "name is null");
+            this.type = checkNotNull(type, "type is null");
+            this.attributes = checkNotNull(attributes, "attributes is null");
+        }
+
+        String name() {
+            return name;
+        }
+
+        Type type() {
+            return type;
+        }
+
+        Optional<AttributeHolder> attributes() {
+            return attributes;
+        }
+    }
+}
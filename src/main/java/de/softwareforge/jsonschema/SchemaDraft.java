@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The versions of json schema that a generator can write. The drafts only differ in how a schema is rendered, all of them are
+ * generated from the same type models, so generators for different drafts share the work of reflection.
+ *
+ * @see JsonSchemaGeneratorBuilder#forDraft(SchemaDraft)
+ */
+public enum SchemaDraft {
+    /**
+     * Draft 4, the default.
+     */
+    DRAFT_04("http://json-schema.org/draft-04/schema#", "id", "definitions", false, "readonly", false),
+    /**
+     * Draft 7. Exclusive bounds are numbers, ids are written as {@code $id}.
+     */
+    DRAFT_07("http://json-schema.org/draft-07/schema#", "$id", "definitions", true, "readOnly", false),
+    /**
+     * Draft 2019-09. Definitions are written to {@code $defs}, keywords next to {@code $ref} apply together with the reference.
+     */
+    DRAFT_2019_09("https://json-schema.org/draft/2019-09/schema", "$id", "$defs", true, "readOnly", true),
+    /**
+     * Draft 2020-12.
+     */
+    DRAFT_2020_12("https://json-schema.org/draft/2020-12/schema", "$id", "$defs", true, "readOnly", true);
+
+    private final String schemaUri;
+    private final String idKeyword;
+    private final String definitionsKeyword;
+    private final boolean numericExclusiveBounds;
+    private final String readOnlyKeyword;
+    private final boolean referenceSiblings;
+
+    SchemaDraft(String schemaUri, String idKeyword, String definitionsKeyword, boolean numericExclusiveBounds, String readOnlyKeyword,
+            boolean referenceSiblings) {
+        this.schemaUri = schemaUri;
+        this.idKeyword = idKeyword;
+        this.definitionsKeyword = definitionsKeyword;
+        this.numericExclusiveBounds = numericExclusiveBounds;
+        this.readOnlyKeyword = readOnlyKeyword;
+        this.referenceSiblings = referenceSiblings;
+    }
+
+    /**
+     * The draft with a meta schema uri, if it is known.
+     */
+    static Optional<SchemaDraft> forSchemaUri(String schemaUri) {
+        return Arrays.stream(values()).filter(draft -> draft.schemaUri.equals(schemaUri)).findFirst();
+    }
+
+    /**
+     * The uri of the meta schema, written as {@code $schema}.
+     */
+    public String schemaUri() {
+        return schemaUri;
+    }
+
+    String idKeyword() {
+        return idKeyword;
+    }
+
+    String definitionsKeyword() {
+        return definitionsKeyword;
+    }
+
+    /**
+     * True if {@code exclusiveMaximum} and {@code exclusiveMinimum} are the bounds themselves instead of flags for {@code maximum}
+     * and {@code minimum}.
+     */
+    boolean numericExclusiveBounds() {
+        return numericExclusiveBounds;
+    }
+
+    String readOnlyKeyword() {
+        return readOnlyKeyword;
+    }
+
+    /**
+     * True if the keywords next to {@code $ref} apply as well. Older drafts ignore them.
+     */
+    boolean referenceSiblings() {
+        return referenceSiblings;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Shares structurally equal nodes between schemas (hash consing). Interned trees must never be modified, because their nodes may be
+ * part of any number of other schemas. Nodes are held weakly, so they are collected when no schema uses them anymore.
+ */
+final class SchemaInterner {
+
+    private final Interner<JsonNode> interner = Interners.newWeakInterner();
+
+    /**
+     * Interns a tree bottom-up. Replaces the children of the given node by their shared instances and returns the shared instance
+     * of the node itself.
+     */
+    <T extends JsonNode> T intern(T node) {
+        if (node.isObject()) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                field.setValue(intern(field.getValue()));
+            }
+        } else if (node.isArray()) {
+            ArrayNode array = (ArrayNode) node;
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, intern(array.get(i)));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T sharedNode = (T) interner.intern(node);
+        // json objects are equal in any order of their fields, but the order is kept when a schema is written.
+        return sharedNode == node || sameChildren(sharedNode, node) ? sharedNode : node;
+    }
+
+    // the children of interned nodes are interned, so they can be compared by identity.
+    private static boolean sameChildren(JsonNode sharedNode, JsonNode node) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> sharedFields = sharedNode.fields();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                Map.Entry<String, JsonNode> sharedField = sharedFields.next();
+                if (!field.getKey().equals(sharedField.getKey()) || field.getValue() != sharedField.getValue()) {
+                    return false;
+                }
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                if (node.get(i) != sharedNode.get(i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+
+import java.time.Duration;
+
+/**
+ * The result of a {@link SchemaScanner} run.
+ */
+@AutoValue
+public abstract class SchemaScanResult {
+
+    static SchemaScanResult create(int scannedClasses, ImmutableMap<String, Throwable> loadFailures, SchemaBatchResult batchResult,
+            Duration scanTime, Duration generationTime) {
+        return new AutoValue_SchemaScanResult(scannedClasses, loadFailures, batchResult, scanTime, generationTime);
+    }
+
+    /**
+     * The number of class files that were found.
+     */
+    public abstract int scannedClasses();
+
+    /**
+     * Candidate classes that could not be loaded, by class name.
+     */
+    public abstract ImmutableMap<String, Throwable> loadFailures();
+
+    /**
+     * The generated schemas, all generation failures and the time spent on every schema.
+     */
+    public abstract SchemaBatchResult batchResult();
+
+    /**
+     * The time that was spent to find and load the annotated classes.
+     */
+    public abstract Duration scanTime();
+
+    /**
+     * The time that was spent to generate all schemas.
+     */
+    public abstract Duration generationTime();
+
+    /**
+     * The number of schemas that were generated per second.
+     */
+    public double schemasPerSecond() {
+        long nanos = generationTime().toNanos();
+        return nanos == 0 ? 0.0d : batchResult().schemas().size() * 1_000_000_000.0d / nanos;
+    }
+}
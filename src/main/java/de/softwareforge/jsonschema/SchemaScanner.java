@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Bytes;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds all classes that are annotated with {@link JsonSchema} in directories, jar files or packages and generates their schemas
+ * in parallel.
+ * <p>
+ * Class files are checked for the annotation before they are loaded, and candidate classes are loaded without initializing them.
+ * {@code module-info.class}, {@code package-info.class} and the versioned classes of multi-release jars ({@code META-INF/versions})
+ * are skipped.
+ */
+public final class SchemaScanner {
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final Set<String> DESCRIPTOR_FILES = ImmutableSet.of("module-info.class", "package-info.class");
+    private static final Joiner DOT_JOINER = Joiner.on('.');
+
+    // every class file that uses the annotation contains its descriptor in the constant pool.
+    private static final byte[] ANNOTATION_DESCRIPTOR = ("L" + JsonSchema.class.getName().replace('.', '/') + ";").getBytes(UTF_8);
+
+    private final JsonSchemaGenerator generator;
+    private final ClassLoader classLoader;
+
+    /**
+     * Creates a new scanner.
+     *
+     * @param generator   Generates all schemas.
+     * @param classLoader Loads all classes that were found. Must be able to load every class from the scanned locations.
+     */
+    public SchemaScanner(JsonSchemaGenerator generator, ClassLoader classLoader) {
+        this.generator = checkNotNull(generator, "generator is null");
+        this.classLoader = checkNotNull(classLoader, "classLoader is null");
+    }
+
+    /**
+     * Scans directories and jar files, using the common {@link ForkJoinPool} to generate the schemas.
+     *
+     * @see #scanPaths(Collection, Executor)
+     */
+    public SchemaScanResult scanPaths(Collection<Path> paths) throws IOException {
+        return scanPaths(paths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Scans directories and jar files. Every path must be a class path root.
+     */
+    public SchemaScanResult scanPaths(Collection<Path> paths, Executor executor) throws IOException {
+        checkNotNull(paths, "paths is null");
+        checkNotNull(executor, "executor is null");
+
+        long startTime = System.nanoTime();
+        Candidates candidates = new Candidates();
+        for (Path path : paths) {
+            if (Files.isDirectory(path)) {
+                scanDirectory(path, "", candidates);
+            } else if (Files.isRegularFile(path)) {
+                scanArchive(path, "", candidates);
+            } else {
+                throw new IllegalArgumentException(format(Locale.ENGLISH, "%s is neither a directory nor an archive", path));
+            }
+        }
+        return generateSchemas(candidates, startTime, executor);
+    }
+
+    /**
+     * Scans packages and all their subpackages, using the common {@link ForkJoinPool} to generate the schemas.
+     *
+     * @see #scanPackages(Collection, Executor)
+     */
+    public SchemaScanResult scanPackages(Collection<String> packageNames) throws IOException {
+        return scanPackages(packageNames, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Scans packages and all their subpackages. The packages are located with the class loader of this scanner.
+     */
+    public SchemaScanResult scanPackages(Collection<String> packageNames, Executor executor) throws IOException {
+        checkNotNull(packageNames, "packageNames is null");
+        checkNotNull(executor, "executor is null");
+
+        long startTime = System.nanoTime();
+        Candidates candidates = new Candidates();
+        for (String packageName : packageNames) {
+            checkArgument(!packageName.isEmpty(), "packageName is empty");
+            for (Enumeration<URL> resources = classLoader.getResources(packageName.replace('.', '/')); resources.hasMoreElements(); ) {
+                URL resource = resources.nextElement();
+                if ("file".equals(resource.getProtocol())) {
+                    scanDirectory(toPath(resource), packageName, candidates);
+                } else if ("jar".equals(resource.getProtocol())) {
+                    URL jarFile = ((JarURLConnection) resource.openConnection()).getJarFileURL();
+                    scanArchive(toPath(jarFile), packageName, candidates);
+                } else {
+                    throw new IllegalArgumentException(format(Locale.ENGLISH, "Can not scan %s", resource));
+                }
+            }
+        }
+        return generateSchemas(candidates, startTime, executor);
+    }
+
+    private static void scanArchive(Path archive, String packageName, Candidates candidates) throws IOException {
+        try (FileSystem fileSystem = FileSystems.newFileSystem(archive, (ClassLoader) null)) {
+            Path start = fileSystem.getPath("/", packageName.split("\\."));
+            if (Files.isDirectory(start)) {
+                scanDirectory(start, packageName, candidates);
+            }
+        }
+    }
+
+    private static void scanDirectory(Path start, String packageName, Candidates candidates) throws IOException {
+        try (Stream<Path> files = Files.walk(start)) {
+            for (Path file : files.filter(path -> isClassFile(start, packageName, path)).collect(Collectors.toList())) {
+                candidates.scannedClasses++;
+                if (Bytes.indexOf(Files.readAllBytes(file), ANNOTATION_DESCRIPTOR) >= 0) {
+                    candidates.classNames.add(className(packageName, start.relativize(file)));
+                }
+            }
+        }
+    }
+
+    private static boolean isClassFile(Path start, String packageName, Path file) {
+        if (file.getFileName() == null) {
+            return false;
+        }
+        String fileName = file.getFileName().toString();
+        if (!fileName.endsWith(CLASS_SUFFIX) || DESCRIPTOR_FILES.contains(fileName)) {
+            return false;
+        }
+        // the versioned classes of a multi-release jar are variants of the classes at the root, not classes of their own.
+        Path relativePath = start.relativize(file);
+        return !(packageName.isEmpty() && relativePath.getNameCount() > 2
+                && relativePath.getName(0).toString().equals("META-INF") && relativePath.getName(1).toString().equals("versions"));
+    }
+
+    private static String className(String packageName, Path relativePath) {
+        List<Object> elements = new ArrayList<>();
+        if (!packageName.isEmpty()) {
+            elements.add(packageName);
+        }
+        relativePath.forEach(elements::add);
+
+        String name = DOT_JOINER.join(elements);
+        return name.substring(0, name.length() - CLASS_SUFFIX.length());
+    }
+
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(format(Locale.ENGLISH, "Can not scan %s", url), e);
+        }
+    }
+
+    private SchemaScanResult generateSchemas(Candidates candidates, long startTime, Executor executor) {
+        ImmutableList.Builder<Class<?>> types = ImmutableList.builder();
+        ImmutableMap.Builder<String, Throwable> loadFailures = ImmutableMap.builder();
+
+        for (String className : candidates.classNames) {
+            try {
+                Class<?> type = Class.forName(className, false, classLoader);
+                if (type.isAnnotationPresent(JsonSchema.class) && !type.isAnnotation()) {
+                    types.add(type);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                loadFailures.put(className, e);
+            }
+        }
+
+        long generationStartTime = System.nanoTime();
+        SchemaBatchResult batchResult = generator.generateSchemas(types.build(), executor);
+        long endTime = System.nanoTime();
+
+        return SchemaScanResult.create(candidates.scannedClasses, loadFailures.build(), batchResult,
+                Duration.ofNanos(generationStartTime - startTime), Duration.ofNanos(endTime - generationStartTime));
+    }
+
+    private static final class Candidates {
+
+        private final Set<String> classNames = new LinkedHashSet<>();
+        private int scannedClasses = 0;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates json values against a schema.
+ * <p>
+ * The schema is compiled once: property maps, required properties, enum values, patterns and references are resolved when
+ * the validator is created, so validating a value never looks at the schema itself. A validator is immutable and can be
+ * shared between threads.
+ * <p>
+ * Supports all keywords that the {@link JsonSchemaGenerator} produces as well as {@code minProperties}, {@code maxProperties}
+ * and schemas for additional properties. {@code format} is not validated. References must point into the schema itself.
+ */
+public final class SchemaValidator {
+
+    private final CompiledSchema schema;
+
+    private SchemaValidator(CompiledSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Compiles a schema into a validator, for the draft of its {@code $schema} keyword or for draft 4 if it has none.
+     *
+     * @throws IllegalArgumentException If the schema is invalid, uses unsupported keywords or contains references that can not
+     *                                  be resolved.
+     */
+    public static SchemaValidator compile(ObjectNode schema) {
+        checkNotNull(schema, "schema is null");
+        return new SchemaValidator(SchemaCompiler.compile(schema));
+    }
+
+    /**
+     * Compiles a schema of a json schema draft into a validator, e.g. a schema without {@code $schema}.
+     *
+     * @throws IllegalArgumentException If the schema is invalid, uses unsupported keywords or contains references that can not
+     *                                  be resolved.
+     */
+    public static SchemaValidator compile(ObjectNode schema, SchemaDraft draft) {
+        checkNotNull(schema, "schema is null");
+        checkNotNull(draft, "draft is null");
+        return new SchemaValidator(SchemaCompiler.compile(schema, draft));
+    }
+
+    /**
+     * Validates a value and reports all errors.
+     */
+    public ValidationResult validate(JsonNode value) {
+        checkNotNull(value, "value is null");
+
+        List<ValidationError> errors = new ArrayList<>();
+        schema.validate(value, InstancePath.ROOT, errors);
+        return ValidationResult.create(errors);
+    }
+
+    /**
+     * Returns true if a value is valid. Stops at the first error, so this is faster than {@link #validate(JsonNode)} for invalid
+     * values.
+     */
+    public boolean isValid(JsonNode value) {
+        checkNotNull(value, "value is null");
+
+        return schema.validate(value, null, null);
+    }
+
+    /**
+     * Validates the next value from a parser without reading it into a tree, and reports all errors. Memory use depends on the
+     * nesting depth of the value, not on its size. Only arrays with {@code uniqueItems} must remember their items.
+     * <p>
+     * As with {@link com.fasterxml.jackson.databind.ObjectMapper#readTree(JsonParser)}, the parser can be positioned at the first
+     * token of the value or before it. The value is consumed, so a sequence of values can be validated by calling this method
+     * repeatedly.
+     *
+     * @throws IOException              If the parser fails, e.g. because the document is not well-formed.
+     * @throws IllegalArgumentException If the parser has no more values.
+     */
+    public ValidationResult validate(JsonParser parser) throws IOException {
+        List<ValidationError> errors = new ArrayList<>();
+        schema.validate(startValue(parser), InstancePath.ROOT, errors);
+        parser.clearCurrentToken();
+        return ValidationResult.create(errors);
+    }
+
+    /**
+     * Returns true if the next value from a parser is valid. Stops at the first token that violates the schema, so an invalid
+     * document is not read to its end.
+     *
+     * @see #validate(JsonParser)
+     */
+    public boolean isValid(JsonParser parser) throws IOException {
+        boolean valid = schema.validate(startValue(parser), null, null);
+        if (valid) {
+            parser.clearCurrentToken();
+        }
+        return valid;
+    }
+
+    private static JsonParser startValue(JsonParser parser) throws IOException {
+        checkNotNull(parser, "parser is null");
+
+        JsonToken token = parser.getCurrentToken();
+        if (token == null || token == JsonToken.FIELD_NAME) {
+            token = parser.nextToken();
+        }
+        if (token == null) {
+            throw new IllegalArgumentException("No value to validate");
+        }
+        return parser;
+    }
+}
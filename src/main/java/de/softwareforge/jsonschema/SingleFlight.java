@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.google.common.base.Throwables;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Computes a value only once for all threads that ask for the same key at the same time. The first thread computes the value, the
+ * others wait for it and get copies. Nothing is kept after the computation; keys are only locked while their value is computed.
+ * <p>
+ * Computations may ask for other keys. If two threads would wait for each other, the computations depend on each other, which is a
+ * recursion.
+ */
+final class SingleFlight<K, V> {
+
+    // the flight that a thread waits for, to find threads that wait for each other.
+    private static final ConcurrentMap<Thread, Flight<?>> WAITING = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the value for a key. Values that were computed by another thread are copied, the computing thread gets the computed value
+     * if no other thread waited for it.
+     *
+     * @throws IllegalStateException If threads would wait for each other.
+     */
+    V get(K key, Supplier<V> computation, UnaryOperator<V> copy) {
+        Flight<V> flight = new Flight<>(Thread.currentThread());
+        while (true) {
+            Flight<V> existingFlight = flights.putIfAbsent(key, flight);
+            if (existingFlight == null) {
+                break;
+            }
+            // closed flights are about to be removed, either compute the value or join the next flight.
+            if (existingFlight.join()) {
+                return copy.apply(await(existingFlight));
+            }
+        }
+
+        try {
+            V value = computation.get();
+            flight.future.complete(value);
+            // waiters copy the computed value, so it must never change.
+            return flight.close() ? copy.apply(value) : value;
+        } catch (RuntimeException | Error e) {
+            flight.future.completeExceptionally(e);
+            flight.close();
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(Flight<V> flight) {
+        Thread currentThread = Thread.currentThread();
+        WAITING.put(currentThread, flight);
+        try {
+            // registered before checking, so of two threads that wait for each other at least one finds the other. Other threads
+            // that wait for each other are about to find out themselves, so the chain is followed only as far as threads are waiting.
+            Flight<?> waitedFor = flight;
+            for (int i = 0; waitedFor != null && i <= WAITING.size(); i++) {
+                if (waitedFor.owner == currentThread) {
+                    throw new IllegalStateException("Recursion detected, not supported!");
+                }
+                waitedFor = WAITING.get(waitedFor.owner);
+            }
+            return flight.future.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            WAITING.remove(currentThread);
+        }
+    }
+
+    private static final class Flight<V> {
+
+        private static final int CLOSED = -1;
+
+        private final Thread owner;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private Flight(Thread owner) {
+            this.owner = owner;
+        }
+
+        // false if the flight is already closed.
+        private boolean join() {
+            for (int count = waiters.get(); count != CLOSED; count = waiters.get()) {
+                if (waiters.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // true if any thread joined the flight.
+        private boolean close() {
+            return waiters.getAndSet(CLOSED) > 0;
+        }
+    }
+}
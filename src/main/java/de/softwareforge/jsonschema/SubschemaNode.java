@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+/**
+ * A schema node whose subschemas are not generated right away. The generator creates an empty
+ * node for every property and item schema below such a node and records everything that is needed
+ * to generate it later.
+ */
+// ObjectNode overrides the generic JsonNode.deepCopy() with a method that returns ObjectNode, so javac reports an unchecked
+// override for every subclass.
+@SuppressWarnings("unchecked")
+class SubschemaNode extends ObjectNode {
+
+    private final Type type;
+    private final Optional<AttributeHolder> attributes;
+    private final ImmutableSet<Type> enclosingTypes;
+
+    SubschemaNode(JsonNodeFactory nodeFactory, Type type, Optional<AttributeHolder> attributes, ImmutableSet<Type> enclosingTypes) {
+        super(nodeFactory);
+        this.type = checkNotNull(type, "type is null");
+        this.attributes = checkNotNull(attributes, "attributes is null");
+        this.enclosingTypes = checkNotNull(enclosingTypes, "enclosingTypes is null");
+    }
+
+    /**
+     * The type that this node describes.
+     */
+    Type type() {
+        return type;
+    }
+
+    /**
+     * The attributes that apply to this node.
+     */
+    Optional<AttributeHolder> attributes() {
+        return attributes;
+    }
+
+    /**
+     * All types that enclose this node. Used for recursion detection.
+     */
+    ImmutableSet<Type> enclosingTypes() {
+        return enclosingTypes;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The kinds of java types that the generator distinguishes. Every raw class is classified once, see {@link ClassMetadata#kind()}, and
+ * the generator picks the handler for a type by its kind.
+ */
+enum TypeKind {
+    /**
+     * A type that maps to a json type, e.g. a string or a number.
+     */
+    SIMPLE,
+    /**
+     * Collections and other iterables, which are arrays.
+     */
+    COLLECTION,
+    /**
+     * Maps, which are objects without properties.
+     */
+    MAP,
+    /**
+     * {@link Optional}, which has the schema of its value if that is a simple type.
+     */
+    OPTIONAL,
+    /**
+     * An enum class.
+     */
+    ENUM,
+    /**
+     * Void.
+     */
+    VOID,
+    /**
+     * Any other type, described by its properties.
+     */
+    BEAN;
+
+    /**
+     * Classifies a raw class. Parameterized types have the kind of their raw class.
+     */
+    static TypeKind classify(Class<?> clazz) {
+        checkNotNull(clazz, "clazz is null");
+
+        // the order matters, e.g. an enum that is iterable is a collection.
+        if (SimpleTypeMappings.forClass(clazz).isPresent()) {
+            return SIMPLE;
+        } else if (SimpleTypeMappings.isCollectionLike(clazz)) {
+            return COLLECTION;
+        } else if (clazz == Void.class || clazz == void.class) {
+            return VOID;
+        } else if (Optional.class.isAssignableFrom(clazz)) {
+            return OPTIONAL;
+        } else if (clazz.isEnum()) {
+            return ENUM;
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            return MAP;
+        }
+        return BEAN;
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The intermediate model of the schema for a java type. It holds everything that is found by reflection: the kind of type, the json
+ * type and format of simple types, the item type of collections and the properties of custom types with their resolved types and
+ * attributes, which carry the constraints and the nullability. Schemas are rendered from the model without any further reflection,
+ * whether they are built as nodes, written as a stream or generated lazily.
+ * <p>
+ * The model of a class is built once and kept with its {@link ClassMetadata}, so it is shared by all generators. Models of parameterized
+ * types are built for every use, because their type arguments may come from other class loaders. The properties are only resolved when
+ * they are first used, and only then reported to a {@link GenerationListener}.
+ */
+final class TypeModel {
+
+    private final Type type;
+    private final Class<?> rawType;
+    private final TypeKind kind;
+    private final Optional<String> jsonType;
+    private final Optional<String> formatHint;
+    private final Optional<Type> itemType;
+    private final TypeToken<?> typeToken;
+    private final Supplier<ImmutableList<Class<?>>> hierarchy;
+
+    // built on first use, see methodProperties(GenerationListener).
+    private volatile ImmutableList<Property> methodProperties = null;
+    private volatile ImmutableList<Property> fieldProperties = null;
+
+    static TypeModel of(Type type) {
+        checkNotNull(type, "type is null");
+        return type instanceof Class ? ClassMetadata.forClass((Class<?>) type).model() : new TypeModel(type);
+    }
+
+    TypeModel(Type type) {
+        TypeToken<?> typeToken = TypeToken.of(type);
+
+        this.type = type;
+        this.rawType = typeToken.getRawType();
+        this.typeToken = typeToken;
+        this.hierarchy = Suppliers.memoize(() -> ImmutableList.copyOf(typeToken.getTypes().rawTypes()));
+
+        TypeKind kind = ClassMetadata.forClass(rawType).kind();
+        Optional<String> jsonType = Optional.empty();
+        Optional<String> formatHint = Optional.empty();
+        Optional<Type> itemType = Optional.empty();
+
+        switch (kind) {
+            case SIMPLE:
+                jsonType = SimpleTypeMappings.forClass(rawType);
+                formatHint = SimpleTypeMappings.formatHint(rawType);
+                break;
+            case OPTIONAL:
+                // only optional simple types have the schema of their value
+                jsonType = SimpleTypeMappings.forClass(type);
+                if (!jsonType.isPresent()) {
+                    kind = TypeKind.BEAN;
+                    jsonType = Optional.of("object");
+                }
+                break;
+            case COLLECTION:
+                jsonType = Optional.of("array");
+                itemType = Optional.of(locateItemType(typeToken));
+                break;
+            case VOID:
+                jsonType = Optional.of("null");
+                break;
+            case ENUM:
+                break;
+            default:
+                jsonType = Optional.of("object");
+                break;
+        }
+
+        this.kind = kind;
+        this.jsonType = jsonType;
+        this.formatHint = formatHint;
+        this.itemType = itemType;
+    }
+
+    Type type() {
+        return type;
+    }
+
+    Class<?> rawType() {
+        return rawType;
+    }
+
+    /**
+     * The kind of the type, which is the kind of its raw class. Optional types are beans unless their value is a simple type.
+     */
+    TypeKind kind() {
+        return kind;
+    }
+
+    /**
+     * The json type of the schema. Enums have no json type.
+     */
+    Optional<String> jsonType() {
+        return jsonType;
+    }
+
+    /**
+     * The format hint of a simple type.
+     */
+    Optional<String> formatHint() {
+        return formatHint;
+    }
+
+    /**
+     * The type of the items of an array.
+     */
+    Optional<Type> itemType() {
+        return itemType;
+    }
+
+    /**
+     * The raw types of the type, its super classes and all of its interfaces.
+     */
+    ImmutableList<Class<?>> hierarchy() {
+        return hierarchy.get();
+    }
+
+    /**
+     * The properties from the annotated methods of the type and its super types, in the order in which they were found. Contains
+     * ignored properties, which may still be required.
+     *
+     * @throws IllegalStateException If a property is defined multiple times.
+     */
+    ImmutableList<Property> methodProperties() {
+        return methodProperties(null);
+    }
+
+    /**
+     * The properties from the annotated methods. If they are located by this call, every member is reported to the listener.
+     *
+     * @param listener The listener of the generator that uses the model. May be null.
+     */
+    ImmutableList<Property> methodProperties(GenerationListener listener) {
+        ImmutableList<Property> properties = methodProperties;
+        if (properties == null) {
+            synchronized (this) {
+                properties = methodProperties;
+                if (properties == null) {
+                    properties = locateMethodProperties(typeToken);
+                    reportProperties(properties, listener);
+                    methodProperties = properties;
+                }
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * The properties from the annotated fields of the type and its super types, in the order in which they were found. Contains
+     * ignored properties, which may still be required.
+     *
+     * @throws IllegalStateException If a property is defined multiple times.
+     */
+    ImmutableList<Property> fieldProperties() {
+        return fieldProperties(null);
+    }
+
+    /**
+     * The properties from the annotated fields. If they are located by this call, every member is reported to the listener.
+     *
+     * @param listener The listener of the generator that uses the model. May be null.
+     */
+    ImmutableList<Property> fieldProperties(GenerationListener listener) {
+        ImmutableList<Property> properties = fieldProperties;
+        if (properties == null) {
+            synchronized (this) {
+                properties = fieldProperties;
+                if (properties == null) {
+                    properties = locateFieldProperties(typeToken);
+                    reportProperties(properties, listener);
+                    fieldProperties = properties;
+                }
+            }
+        }
+        return properties;
+    }
+
+    private static void reportProperties(ImmutableList<Property> properties, GenerationListener listener) {
+        if (listener != null) {
+            for (Property property : properties) {
+                listener.memberScanned(property.member());
+                if (!property.attributes().ignored()) {
+                    listener.annotationsResolved(property.annotatedElement());
+                }
+            }
+        }
+    }
+
+    private static Type locateItemType(TypeToken<?> typeToken) {
+        if (typeToken.isArray()) {
+            return typeToken.getComponentType().getType();
+        }
+
+        Class<?> clazz = typeToken.getRawType();
+        checkState(clazz.getTypeParameters().length > 0, "No type arguments in return type found!");
+        return typeToken.resolveType(clazz.getTypeParameters()[0]).getType();
+    }
+
+    private static ImmutableList<Property> locateMethodProperties(TypeToken<?> typeToken) {
+        ImmutableList.Builder<Property> properties = ImmutableList.builder();
+        Set<String> propertyNames = new HashSet<>();
+
+        for (TypeToken<?> implementingTypeToken : typeToken.getTypes()) {
+            Class<?> clazz = implementingTypeToken.getRawType();
+
+            for (Map.Entry<Method, AttributeHolder> entry : ClassMetadata.forClass(clazz).methods().entrySet()) {
+                Method method = entry.getKey();
+                AttributeHolder attributes = entry.getValue();
+                String propertyName = attributes.named().orElseGet(() -> JsonSchemaGenerator.propertyName(method));
+
+                if (propertyNames.contains(propertyName)) {
+                    throw new IllegalStateException(format(Locale.ENGLISH,
+                            "Property %s defined multiple times (saw %s)", propertyName, clazz.getSimpleName()));
+                }
+
+                // ignored properties can be defined again
+                if (!attributes.ignored()) {
+                    propertyNames.add(propertyName);
+                }
+
+                Type propertyType = implementingTypeToken.resolveType(method.getGenericReturnType()).getType();
+                properties.add(new Property(propertyName, method, propertyType, attributes));
+            }
+        }
+
+        return properties.build();
+    }
+
+    private static ImmutableList<Property> locateFieldProperties(TypeToken<?> typeToken) {
+        ImmutableList.Builder<Property> properties = ImmutableList.builder();
+        Set<String> propertyNames = new HashSet<>();
+
+        for (TypeToken<?> implementingTypeToken : typeToken.getTypes()) {
+            Class<?> clazz = implementingTypeToken.getRawType();
+
+            for (Map.Entry<Field, AttributeHolder> entry : ClassMetadata.forClass(clazz).fields().entrySet()) {
+                Field field = entry.getKey();
+                AttributeHolder attributes = entry.getValue();
+                String propertyName = attributes.named().orElse(JsonSchemaGenerator.propertyName(field));
+
+                if (propertyNames.contains(propertyName)) {
+                    throw new IllegalStateException(format(Locale.ENGLISH,
+                            "Property %s defined multiple times (saw %s)", propertyName, field.getName()));
+                }
+
+                if (!attributes.ignored()) {
+                    propertyNames.add(propertyName);
+                }
+
+                Type propertyType = implementingTypeToken.resolveType(field.getGenericType()).getType();
+                properties.add(new Property(propertyName, field, propertyType, attributes));
+            }
+        }
+
+        return properties.build();
+    }
+
+    /**
+     * A property of a custom type.
+     */
+    static final class Property {
+
+        private final String name;
+        private final Member member;
+        private final AnnotatedElement annotatedElement;
+        private final Type type;
+        private final AttributeHolder attributes;
+
+        private <T extends Member & AnnotatedElement> Property(String name, T member, Type type, AttributeHolder attributes) {
+            this.name = checkNotNull(name, "name is null");
+            this.member = checkNotNull(member, "member is null");
+            this.annotatedElement = member;
+            this.type = checkNotNull(type, "type is null");
+            this.attributes = checkNotNull(attributes, "attributes is null");
+        }
+
+        String name() {
+            return name;
+        }
+
+        /**
+         * The annotated method or field.
+         */
+        Member member() {
+            return member;
+        }
+
+        AnnotatedElement annotatedElement() {
+            return annotatedElement;
+        }
+
+        /**
+         * The type of the property, with all type variables of the enclosing type resolved.
+         */
+        Type type() {
+            return type;
+        }
+
+        AttributeHolder attributes() {
+            return attributes;
+        }
+    }
+}
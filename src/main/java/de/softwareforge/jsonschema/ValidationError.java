@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * A value that does not match its schema.
+ */
+@AutoValue
+public abstract class ValidationError {
+
+    static ValidationError create(String path, String keyword, String message) {
+        return new AutoValue_ValidationError(path, keyword, message);
+    }
+
+    /**
+     * The location of the value as a json pointer. The empty string is the validated value itself.
+     */
+    public abstract String path();
+
+    /**
+     * The schema keyword that the value violates, e.g. {@code required} or {@code maxLength}.
+     */
+    public abstract String keyword();
+
+    public abstract String message();
+}
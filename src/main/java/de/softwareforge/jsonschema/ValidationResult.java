@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.softwareforge.jsonschema;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * The result of validating a value with a {@link SchemaValidator}.
+ */
+@AutoValue
+public abstract class ValidationResult {
+
+    private static final ValidationResult VALID = new AutoValue_ValidationResult(ImmutableList.of());
+
+    static ValidationResult create(List<ValidationError> errors) {
+        return errors.isEmpty() ? VALID : new AutoValue_ValidationResult(ImmutableList.copyOf(errors));
+    }
+
+    /**
+     * All errors that were found, in document order.
+     */
+    public abstract ImmutableList<ValidationError> errors();
+
+    public boolean isValid() {
+        return errors().isEmpty();
+    }
+}
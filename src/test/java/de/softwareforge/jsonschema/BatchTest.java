@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.inheritance.CollegeStudent;
+import de.softwareforge.jsonschema.inheritance.MusicItem;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchTest {
+
+    private static final List<Class<?>> TYPES = ImmutableList.of(ProductTest.Product.class, ProductTest.ComplexProduct.class,
+            EmployeeTest.Employee.class, GenericsTest.GenericExample.class, EnumTest.Hyperthing.class, NullableArrayTest.Something.class,
+            MusicItem.class, CollegeStudent.class);
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+    @Test
+    public void testBatchMatchesSingleSchemas() {
+        JsonSchemaGenerator singleGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SchemaBatchResult result = schemaGenerator.generateSchemas(TYPES, pool);
+
+            assertFalse(result.hasFailures());
+            assertEquals(TYPES, result.schemas().keySet().asList());
+            for (Class<?> type : TYPES) {
+                assertEquals(type.getSimpleName(), singleGenerator.generateSchema(type), result.schemas().get(type));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCommonPool() {
+        SchemaBatchResult result = schemaGenerator.generateSchemas(TYPES);
+
+        assertFalse(result.hasFailures());
+        assertEquals(TYPES.size(), result.schemas().size());
+    }
+
+    @Test
+    public void testFailuresAreReportedPerType() {
+        SchemaBatchResult result = schemaGenerator.generateSchemas(ImmutableList.of(ProductTest.Product.class, Recursive.class,
+                EmployeeTest.Employee.class));
+
+        assertTrue(result.hasFailures());
+        assertEquals(ImmutableList.of(ProductTest.Product.class, EmployeeTest.Employee.class), result.schemas().keySet().asList());
+        assertEquals(ImmutableList.of(Recursive.class), result.failures().keySet().asList());
+
+        Throwable failure = result.failures().get(Recursive.class);
+        assertTrue(failure instanceof IllegalStateException);
+        assertEquals("Recursion detected, not supported!", failure.getMessage());
+    }
+
+    @Test
+    public void testDuplicateTypes() {
+        SchemaBatchResult result = schemaGenerator.generateSchemas(ImmutableList.of(ProductTest.Product.class, ProductTest.Product.class));
+
+        assertEquals(1, result.schemas().size());
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        SchemaBatchResult result = schemaGenerator.generateSchemas(Collections.emptyList());
+
+        assertTrue(result.schemas().isEmpty());
+        assertFalse(result.hasFailures());
+    }
+
+    @Test
+    public void testBatchSchemasAreCopies() {
+        ObjectNode schema = schemaGenerator.generateSchemas(ImmutableList.of(ProductTest.Product.class)).schemas().get(ProductTest.Product.class);
+        schema.removeAll();
+
+        assertEquals(JsonSchemaGeneratorBuilder.draftV4Schema().build().generateSchema(ProductTest.Product.class),
+                schemaGenerator.generateSchema(ProductTest.Product.class));
+    }
+
+    public static class Recursive {
+
+        @JsonSchema
+        public Recursive getSelf() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+public class CanonicalSchemaTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testCanonicalForm() throws Exception {
+        ObjectNode schema = (ObjectNode) MAPPER.readTree("{ \"b\": [2, {\"z\": true, \"y\": null}], \"a\": \"x\", \"a/~\": 1.5 }");
+        ObjectNode reordered = (ObjectNode) MAPPER.readTree("{\"a/~\":1.5,\"a\":\"x\",\"b\":[2,{\"y\":null,\"z\":true}]}");
+
+        CanonicalSchema canonicalSchema = CanonicalSchema.of(schema);
+        assertEquals("{\"a\":\"x\",\"a/~\":1.5,\"b\":[2,{\"y\":null,\"z\":true}]}", canonicalSchema.toString());
+        assertEquals(canonicalSchema.size(), canonicalSchema.bytes().remaining());
+        assertEquals(canonicalSchema, CanonicalSchema.of(reordered));
+        assertEquals('"' + canonicalSchema.fingerprint().toString() + '"', canonicalSchema.etag());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        canonicalSchema.writeTo(out);
+        assertEquals(canonicalSchema.toString(), out.toString("UTF-8"));
+
+        assertEquals(canonicalSchema.fingerprint(), canonicalSchema.fingerprint("").get());
+        assertEquals(CanonicalSchema.of((ObjectNode) reordered.at("/b/1")).fingerprint(), canonicalSchema.fingerprint("/b/1").get());
+        assertFalse(canonicalSchema.fingerprint("/a~1~0").isPresent());
+        assertFalse(canonicalSchema.fingerprint("/c").isPresent());
+
+        // the same values in different places are different schemas
+        assertNotEquals(canonicalSchema, CanonicalSchema.of((ObjectNode) MAPPER.readTree("{\"a\":\"x\",\"a/~\":1.5,\"b\":[{\"y\":null,\"z\":true},2]}")));
+        assertNotEquals(canonicalSchema, CanonicalSchema.of((ObjectNode) MAPPER.readTree("{\"a\":\"x\",\"a/~\":\"1.5\",\"b\":[2,{\"y\":null,\"z\":true}]}")));
+    }
+
+    @Test
+    public void testCached() {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+        CanonicalSchema canonicalSchema = schemaGenerator.generateCanonicalSchema(SchemaValidatorTest.Account.class);
+        assertSame(canonicalSchema, schemaGenerator.generateCanonicalSchema(SchemaValidatorTest.Account.class));
+        assertEquals(CanonicalSchema.of(schemaGenerator.generateSchema(SchemaValidatorTest.Account.class)), canonicalSchema);
+
+        schemaGenerator.invalidateCache();
+        CanonicalSchema regeneratedSchema = schemaGenerator.generateCanonicalSchema(SchemaValidatorTest.Account.class);
+        assertEquals(canonicalSchema, regeneratedSchema);
+        assertEquals(canonicalSchema.fingerprint(), regeneratedSchema.fingerprint());
+
+        JsonSchemaGenerator uncachedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().build();
+        assertEquals(canonicalSchema, uncachedGenerator.generateCanonicalSchema(SchemaValidatorTest.Account.class));
+        assertEquals(canonicalSchema, CanonicalSchema.of(uncachedGenerator.generateLazySchema(SchemaValidatorTest.Account.class)));
+    }
+
+    @Test
+    public void testSubschemaFingerprints() {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+        CanonicalSchema order = schemaGenerator.generateCanonicalSchema(Order.class);
+        CanonicalSchema invoice = schemaGenerator.generateCanonicalSchema(Invoice.class);
+
+        assertNotEquals(order.fingerprint(), invoice.fingerprint());
+        assertEquals(order.fingerprint("/properties/address"), invoice.fingerprint("/properties/address"));
+        assertNotEquals(order.fingerprint("/properties"), invoice.fingerprint("/properties"));
+    }
+
+    @Test
+    public void testMemberOrder() {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().processFields().build();
+
+        // the same members, declared in a different order
+        CanonicalSchema contact = schemaGenerator.generateCanonicalSchema(Contact.class);
+        CanonicalSchema reorderedContact = schemaGenerator.generateCanonicalSchema(ReorderedContact.class);
+
+        assertEquals("{\"$schema\":\"http://json-schema.org/draft-04/schema#\",\"properties\":{"
+                + "\"email\":{\"type\":\"string\"},\"firstName\":{\"type\":\"string\"},\"lastName\":{\"type\":\"string\"},"
+                + "\"phone\":{\"type\":\"string\"},\"zip\":{\"type\":\"string\"}},"
+                + "\"required\":[\"firstName\",\"lastName\",\"zip\",\"email\",\"phone\"],\"type\":\"object\"}", contact.toString());
+        assertEquals(contact, reorderedContact);
+        assertEquals(contact.fingerprint(), reorderedContact.fingerprint());
+    }
+
+    public static class Order {
+
+        @JsonSchema
+        public SchemaValidatorTest.Address getAddress() {
+            return null;
+        }
+
+        @JsonSchema
+        public String getId() {
+            return null;
+        }
+    }
+
+    public static class Invoice {
+
+        @JsonSchema
+        public SchemaValidatorTest.Address getAddress() {
+            return null;
+        }
+
+        @JsonSchema
+        public double getTotal() {
+            return 0;
+        }
+    }
+
+    public static class Contact {
+
+        @JsonSchema(required = true)
+        public String email;
+
+        @JsonSchema(required = true)
+        public String phone;
+
+        @JsonSchema(required = true)
+        public String getFirstName() {
+            return null;
+        }
+
+        @JsonSchema(required = true)
+        public String getLastName() {
+            return null;
+        }
+
+        @JsonSchema(required = true)
+        public String getZip() {
+            return null;
+        }
+    }
+
+    public static class ReorderedContact {
+
+        @JsonSchema(required = true)
+        public String phone;
+
+        @JsonSchema(required = true)
+        public String email;
+
+        @JsonSchema(required = true)
+        public String getZip() {
+            return null;
+        }
+
+        @JsonSchema(required = true)
+        public String getLastName() {
+            return null;
+        }
+
+        @JsonSchema(required = true)
+        public String getFirstName() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ClassCacheTest {
+
+    private static final String ORDER_SOURCE = "package redeployed;\n"
+            + "public class Order {\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public Status getStatus() { return null; }\n"
+            + "    public enum Status { OPEN, CLOSED }\n"
+            + "}\n";
+
+    private static final String CUSTOMER_SOURCE = "package redeployed;\n"
+            + "public class Customer {\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public String getName() { return null; }\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public java.util.List<Integer> getScores() { return null; }\n"
+            + "}\n";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPartitions() throws Exception {
+        ClassCache<String> cache = new ClassCache<>(10);
+        cache.put(String.class, "string");
+        cache.put(ClassCacheTest.class, "test");
+
+        try (URLClassLoader classLoader = compile(ORDER_SOURCE); URLClassLoader childClassLoader = new URLClassLoader(new URL[0], classLoader)) {
+            Class<?> order = classLoader.loadClass("redeployed.Order");
+            cache.put(order, "order");
+            assertEquals("order", cache.getIfPresent(order));
+
+            // also drops the classes of descendants
+            assertEquals(ImmutableSet.of(), cache.invalidate(childClassLoader));
+            assertEquals(ImmutableSet.of(ClassCacheTest.class, order), cache.invalidate(ClassCacheTest.class.getClassLoader()));
+            assertNull(cache.getIfPresent(order));
+            assertNull(cache.getIfPresent(ClassCacheTest.class));
+            assertEquals("string", cache.getIfPresent(String.class));
+        }
+    }
+
+    @Test
+    public void testInvalidateClassLoader() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().listener(listener).build();
+
+        try (URLClassLoader classLoader = compile(ORDER_SOURCE)) {
+            Class<?> order = classLoader.loadClass("redeployed.Order");
+            schemaGenerator.generateSchema(order);
+            schemaGenerator.generateSchema(ProductTest.Product.class);
+
+            schemaGenerator.invalidateCache(classLoader);
+
+            listener.hits.clear();
+            schemaGenerator.generateSchema(order);
+            schemaGenerator.generateSchema(ProductTest.Product.class);
+            assertEquals(ImmutableList.of(ProductTest.Product.class), listener.hits);
+        }
+    }
+
+    @Test
+    public void testClassLoaderIsCollected() throws Exception {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+        WeakReference<ClassLoader> classLoaderReference = generateInClassLoader(schemaGenerator);
+        for (int i = 0; i < 50 && classLoaderReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("class loader was not collected", classLoaderReference.get());
+
+        // the generator is still usable
+        assertNotNull(schemaGenerator.generateSchema(ProductTest.Product.class));
+    }
+
+    @Test
+    public void testLibraryClassLoaderIsCollected() throws Exception {
+        WeakReference<ClassLoader> classLoaderReference = generateWithLibraryInClassLoader();
+        for (int i = 0; i < 50 && classLoaderReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // the metadata of String, List and Integer must not keep the library alive
+        assertNull("class loader was not collected", classLoaderReference.get());
+    }
+
+    private WeakReference<ClassLoader> generateWithLibraryInClassLoader() throws Exception {
+        URL[] urls = {
+                compileClasses("Customer.java", CUSTOMER_SOURCE).toURI().toURL(),
+                location(JsonSchemaGenerator.class),
+                location(ImmutableList.class),
+                location(ObjectNode.class),
+                location(JsonParser.class),
+                location(JsonProperty.class)
+        };
+
+        // the parent does not see the library, so the child class loader loads its own copy, like a web application does
+        try (URLClassLoader classLoader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader().getParent())) {
+            Class<?> builderClass = classLoader.loadClass(JsonSchemaGeneratorBuilder.class.getName());
+            Method draftV4Schema = builderClass.getMethod("draftV4Schema");
+            Object schemaGenerator = draftV4Schema.getReturnType().getMethod("build").invoke(draftV4Schema.invoke(null));
+            assertTrue(schemaGenerator.getClass().getClassLoader() == classLoader);
+
+            Object schema = schemaGenerator.getClass().getMethod("generateSchema", Class.class)
+                    .invoke(schemaGenerator, classLoader.loadClass("redeployed.Customer"));
+            assertEquals("{\"$schema\":\"http://json-schema.org/draft-04/schema#\",\"type\":\"object\",\"properties\":{"
+                    + "\"name\":{\"type\":\"string\"},\"scores\":{\"type\":\"array\",\"items\":{\"type\":\"integer\",\"format\":\"int32\"}}}}",
+                    schema.toString());
+            return new WeakReference<>(classLoader);
+        }
+    }
+
+    private static URL location(Class<?> type) {
+        return type.getProtectionDomain().getCodeSource().getLocation();
+    }
+
+    private WeakReference<ClassLoader> generateInClassLoader(JsonSchemaGenerator schemaGenerator) throws Exception {
+        try (URLClassLoader classLoader = compile(ORDER_SOURCE)) {
+            Class<?> order = classLoader.loadClass("redeployed.Order");
+            assertTrue(schemaGenerator.generateSchema(order).at("/properties/status").has("enum"));
+            assertTrue(schemaGenerator.generateLazySchema(order).at("/properties/status").has("enum"));
+            return new WeakReference<>(classLoader);
+        }
+    }
+
+    private URLClassLoader compile(String source) throws IOException {
+        File outputDirectory = compileClasses("Order.java", source);
+        return new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()}, ClassCacheTest.class.getClassLoader());
+    }
+
+    private File compileClasses(String fileName, String source) throws IOException {
+        File sourceDirectory = temporaryFolder.newFolder();
+        File outputDirectory = temporaryFolder.newFolder();
+
+        File sourceFile = new File(sourceDirectory, fileName);
+        Files.write(sourceFile.toPath(), source.getBytes(UTF_8));
+        assertEquals(0, javax.tools.ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-classpath", System.getProperty("java.class.path"), "-d", outputDirectory.getAbsolutePath(), sourceFile.getAbsolutePath()));
+        return outputDirectory;
+    }
+
+    private static final class RecordingListener implements GenerationListener {
+
+        private final List<Type> hits = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void cacheHit(Class<?> type, CacheKind cache) {
+            hits.add(type);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.annotations.Nullable;
+import de.softwareforge.jsonschema.annotations.SchemaIgnore;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+
+public class ClassMetadataTest {
+
+    @Test
+    public void testMetadataIsResolvedOnce() {
+        ClassMetadata metadata = ClassMetadata.forClass(Annotated.class);
+        assertSame(metadata, ClassMetadata.forClass(Annotated.class));
+        assertSame(metadata.methods(), ClassMetadata.forClass(Annotated.class).methods());
+        assertSame(metadata.fields(), ClassMetadata.forClass(Annotated.class).fields());
+    }
+
+    @Test
+    public void testClassAttributes() {
+        assertTrue(ClassMetadata.forClass(Annotated.class).attributes().isPresent());
+        assertEquals("annotated", ClassMetadata.forClass(Annotated.class).attributes().get().title().get());
+        assertFalse(ClassMetadata.forClass(Object.class).attributes().isPresent());
+    }
+
+    @Test
+    public void testMethods() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(Annotated.class);
+
+        assertEquals(2, metadata.methods().size());
+
+        Method getName = Annotated.class.getDeclaredMethod("getName");
+        assertTrue(metadata.methods().containsKey(getName));
+        assertTrue(metadata.methods().get(getName).nullable());
+
+        Method getIgnored = Annotated.class.getDeclaredMethod("getIgnored");
+        assertTrue(metadata.methods().get(getIgnored).ignored());
+    }
+
+    @Test
+    public void testFields() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(Annotated.class);
+
+        assertEquals(1, metadata.fields().size());
+
+        Field name = Annotated.class.getDeclaredField("name");
+        assertEquals("theName", metadata.fields().get(name).named().get());
+    }
+
+    @Test
+    public void testEnumValues() {
+        assertEquals(ImmutableList.of(404L, 401L), ClassMetadata.forClass(EnumTest.IntegerEnum.class).enumValues());
+        assertEquals(ImmutableList.of(new BigDecimal("4.04"), new BigDecimal("4.01")), ClassMetadata.forClass(EnumTest.FloatingEnum.class).enumValues());
+        assertEquals(ImmutableList.of("NOT_FOUND", "UNAUTHORIZED"), ClassMetadata.forClass(EnumTest.SimpleEnum.class).enumValues());
+        assertSame(ClassMetadata.forClass(EnumTest.SimpleEnum.class).enumValues(), ClassMetadata.forClass(EnumTest.SimpleEnum.class).enumValues());
+        assertTrue(ClassMetadata.forClass(Annotated.class).enumValues().isEmpty());
+    }
+
+    @Test
+    public void testEnumValueClassification() {
+        // the same results as Long.parseLong() and new BigDecimal()
+        for (String value : ImmutableList.of("0", "-0", "+17", "007", "9223372036854775807", "-9223372036854775808", "\uff11\uff12")) {
+            assertEquals(value, Long.parseLong(value), ClassMetadata.enumValue(value));
+        }
+        for (String value : ImmutableList.of("9223372036854775808", "-9223372036854775809", "1.5", "-.5", "5.", "+1e5", "1E-3", "2.50", "1e0000000000012")) {
+            assertEquals(value, new BigDecimal(value), ClassMetadata.enumValue(value));
+        }
+        for (String value : ImmutableList.of("", "-", "+", ".", "1..2", "1e", "1e+", "e5", "0x10", "1_000", "NaN", "Infinity", "1 ", " 1", "1e12345678901",
+                "1e2147483649", "GET")) {
+            assertEquals(value, value, ClassMetadata.enumValue(value));
+        }
+    }
+
+    @JsonSchema(title = "annotated")
+    static class Annotated {
+
+        @JsonProperty
+        static String constant = "constant";
+
+        @JsonProperty
+        transient String transientName;
+
+        @JsonProperty("theName")
+        String name;
+
+        @Nullable
+        public String getName() {
+            return name;
+        }
+
+        @SchemaIgnore
+        public String getIgnored() {
+            return null;
+        }
+
+        @JsonProperty
+        public static String getConstant() {
+            return constant;
+        }
+
+        public String getUnannotated() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class DefinitionsTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().useDefinitions().build();
+
+    @Test
+    public void testRecursiveType() {
+        ObjectNode schema = schemaGenerator.generateSchema(TreeNode.class);
+
+        assertEquals("#", schema.at("/properties/parent/$ref").asText());
+        assertEquals("array", schema.at("/properties/children/type").asText());
+        assertEquals("#", schema.at("/properties/children/items/$ref").asText());
+        assertFalse(schema.has("definitions"));
+    }
+
+    @Test
+    public void testMutualRecursion() {
+        ObjectNode schema = schemaGenerator.generateSchema(Person.class);
+
+        assertEquals("#/definitions/Company", schema.at("/properties/employer/$ref").asText());
+        assertEquals("#", schema.at("/definitions/Company/properties/employees/items/$ref").asText());
+        assertReferencesResolve(schema, schema);
+    }
+
+    @Test
+    public void testRepeatedType() {
+        ObjectNode schema = schemaGenerator.generateSchema(Order.class);
+
+        String reference = schema.at("/properties/billing/$ref").asText();
+        assertEquals(reference, schema.at("/properties/shipping/$ref").asText());
+        assertEquals("string", schema.at(reference.substring(1) + "/properties/street/type").asText());
+
+        // different attributes change the subschema. Names are assigned in the order that the types are found.
+        String pickupReference = schema.at("/properties/pickup/$ref").asText();
+        assertEquals(ImmutableSet.of("#/definitions/Address", "#/definitions/Address2"), ImmutableSet.of(reference, pickupReference));
+        assertFalse(schema.at(pickupReference.substring(1) + "/additionalProperties").asBoolean(true));
+
+        assertEquals(2, schema.get("definitions").size());
+        assertReferencesResolve(schema, schema);
+    }
+
+    @Test
+    public void testNameClash() {
+        ObjectNode schema = schemaGenerator.generateSchema(Clash.class);
+
+        String reference = schema.at("/properties/address/$ref").asText();
+        String otherReference = schema.at("/properties/otherAddress/$ref").asText();
+        assertEquals(ImmutableSet.of("#/definitions/Address", "#/definitions/Address2"), ImmutableSet.of(reference, otherReference));
+        assertTrue(schema.at(otherReference.substring(1) + "/properties").has("city"));
+    }
+
+    @Test
+    public void testStreamMatchesTree() throws IOException {
+        for (Class<?> type : new Class<?>[]{TreeNode.class, Person.class, Order.class, ProductTest.ComplexProduct.class}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            schemaGenerator.writeSchema(type, out);
+            assertEquals(type.getSimpleName(), MAPPER.readTree(MAPPER.writeValueAsBytes(schemaGenerator.generateSchema(type))),
+                    MAPPER.readTree(out.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testWithoutDefinitions() {
+        JsonSchemaGenerator inlineGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+        ObjectNode schema = inlineGenerator.generateSchema(Order.class);
+        assertEquals("string", schema.at("/properties/billing/properties/street/type").asText());
+        assertFalse(schema.has("definitions"));
+
+        try {
+            inlineGenerator.generateSchema(TreeNode.class);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Recursion detected, not supported!", e.getMessage());
+        }
+    }
+
+    private static void assertReferencesResolve(JsonNode root, JsonNode node) {
+        if (node.has("$ref")) {
+            String reference = node.get("$ref").asText();
+            assertTrue(reference, reference.startsWith("#"));
+            assertFalse(reference, root.at(reference.substring(1)).isMissingNode());
+        }
+        node.forEach(child -> assertReferencesResolve(root, child));
+    }
+
+    public static class TreeNode {
+
+        @JsonSchema
+        public TreeNode getParent() {
+            return null;
+        }
+
+        @JsonSchema
+        public List<TreeNode> getChildren() {
+            return null;
+        }
+    }
+
+    public static class Person {
+
+        @JsonSchema
+        public String getName() {
+            return null;
+        }
+
+        @JsonSchema
+        public Company getEmployer() {
+            return null;
+        }
+    }
+
+    public static class Company {
+
+        @JsonSchema
+        public List<Person> getEmployees() {
+            return null;
+        }
+    }
+
+    public static class Address {
+
+        @JsonSchema
+        public String getStreet() {
+            return null;
+        }
+    }
+
+    public static class Order {
+
+        @JsonSchema
+        public Address getBilling() {
+            return null;
+        }
+
+        @JsonSchema
+        public Address getShipping() {
+            return null;
+        }
+
+        @JsonSchema(additionalProperties = false)
+        public Address getPickup() {
+            return null;
+        }
+    }
+
+    public static class Clash {
+
+        @JsonSchema
+        public Address getAddress() {
+            return null;
+        }
+
+        @JsonSchema
+        public Other.Address getOtherAddress() {
+            return null;
+        }
+    }
+
+    public static class Other {
+
+        public static class Address {
+
+            @JsonSchema
+            public String getCity() {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+public class DiskCacheTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String ORDER_SOURCE = "package cached;\n"
+            + "public class Order {\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public Item getItem() { return null; }\n"
+            + "}\n";
+
+    private static final String ITEM_SOURCE = "package cached;\n"
+            + "public class Item {\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public String getName() { return null; }\n"
+            + "}\n";
+
+    private static final String CHANGED_ITEM_SOURCE = "package cached;\n"
+            + "public class Item {\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public String getName() { return null; }\n"
+            + "    @de.softwareforge.jsonschema.annotations.JsonSchema\n"
+            + "    public int getCount() { return 0; }\n"
+            + "}\n";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        ObjectNode schema = diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.ComplexProduct.class);
+        Path entry = onlyEntry(cacheDirectory);
+
+        // a new generator uses the stored schema
+        modifyEntry(entry, node -> ((ObjectNode) node.get("schema")).put("stored", true));
+        ObjectNode storedSchema = diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.ComplexProduct.class);
+        assertTrue(storedSchema.get("stored").asBoolean());
+
+        storedSchema.remove("stored");
+        assertEquals(schema, storedSchema);
+    }
+
+    @Test
+    public void testStreamStoredSchema() throws IOException {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.Product.class);
+        modifyEntry(onlyEntry(cacheDirectory), node -> ((ObjectNode) node.get("schema")).put("stored", true));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        diskCacheGenerator(cacheDirectory).writeSchema(ProductTest.Product.class, out);
+        assertTrue(MAPPER.readTree(out.toByteArray()).get("stored").asBoolean());
+    }
+
+    @Test
+    public void testConfigurationChange() throws IOException {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.Product.class);
+        modifyEntry(onlyEntry(cacheDirectory), node -> ((ObjectNode) node.get("schema")).put("stored", true));
+
+        JsonSchemaGenerator fieldsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().processFields().diskCache(cacheDirectory).build();
+        assertFalse(fieldsGenerator.generateSchema(ProductTest.Product.class).has("stored"));
+        assertEquals(2, entries(cacheDirectory).size());
+    }
+
+    @Test
+    public void testChangedDependency() throws IOException {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.ComplexProduct.class);
+        Path entry = onlyEntry(cacheDirectory);
+        modifyEntry(entry, node -> {
+            ((ObjectNode) node.get("schema")).put("stored", true);
+            ((ObjectNode) node.get("dependencies")).put(ProductTest.Dimension.class.getName(), "0000");
+        });
+
+        assertFalse(diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.ComplexProduct.class).has("stored"));
+
+        // the entry was replaced
+        assertEquals(ImmutableList.of(entry), entries(cacheDirectory));
+        assertFalse(MAPPER.readTree(entry.toFile()).get("schema").has("stored"));
+    }
+
+    @Test
+    public void testDamagedEntry() throws IOException {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        ObjectNode schema = diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.Product.class);
+        Path entry = onlyEntry(cacheDirectory);
+        Files.write(entry, "{ \"schema\": ".getBytes(UTF_8));
+
+        assertEquals(schema, diskCacheGenerator(cacheDirectory).generateSchema(ProductTest.Product.class));
+        assertEquals(schema, MAPPER.readTree(entry.toFile()).get("schema"));
+    }
+
+    @Test
+    public void testChangedByteCode() throws Exception {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        try (URLClassLoader classLoader = compile(ORDER_SOURCE, ITEM_SOURCE)) {
+            ObjectNode schema = diskCacheGenerator(cacheDirectory).generateSchema(classLoader.loadClass("cached.Order"));
+            assertFalse(schema.at("/properties/item/properties").has("count"));
+        }
+
+        // only the type of the property has changed
+        try (URLClassLoader classLoader = compile(ORDER_SOURCE, CHANGED_ITEM_SOURCE)) {
+            ObjectNode schema = diskCacheGenerator(cacheDirectory).generateSchema(classLoader.loadClass("cached.Order"));
+            assertTrue(schema.at("/properties/item/properties").has("count"));
+        }
+    }
+
+    @Test
+    public void testSystemClassesAreNotStored() throws IOException {
+        Path cacheDirectory = temporaryFolder.newFolder().toPath();
+
+        diskCacheGenerator(cacheDirectory).generateSchema(String.class);
+        assertTrue(entries(cacheDirectory).isEmpty());
+    }
+
+    @Test
+    public void testUnusableDirectory() throws IOException {
+        // a file instead of a directory, which can neither be read nor written, like a read-only or full file system
+        Path cacheDirectory = temporaryFolder.newFile().toPath();
+        List<String> failures = new CopyOnWriteArrayList<>();
+        GenerationListener listener = new GenerationListener() {
+            @Override
+            public void cacheFailed(Class<?> type, CacheKind cache, UncheckedIOException error) {
+                failures.add(cache + ":" + type.getSimpleName());
+            }
+        };
+
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().diskCache(cacheDirectory).listener(listener).build();
+        ObjectNode schema = schemaGenerator.generateSchema(ProductTest.Product.class);
+
+        assertEquals(JsonSchemaGeneratorBuilder.draftV4Schema().build().generateSchema(ProductTest.Product.class), schema);
+        assertEquals(ImmutableList.of("DISK:Product", "DISK:Product"), failures);
+    }
+
+    private static JsonSchemaGenerator diskCacheGenerator(Path cacheDirectory) {
+        return JsonSchemaGeneratorBuilder.draftV4Schema().diskCache(cacheDirectory).build();
+    }
+
+    private static Path onlyEntry(Path cacheDirectory) throws IOException {
+        List<Path> entries = entries(cacheDirectory);
+        assertEquals(1, entries.size());
+        return entries.get(0);
+    }
+
+    private static List<Path> entries(Path cacheDirectory) throws IOException {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return ImmutableList.of();
+        }
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static void modifyEntry(Path entry, Consumer<ObjectNode> modification) throws IOException {
+        ObjectNode node = (ObjectNode) MAPPER.readTree(entry.toFile());
+        modification.accept(node);
+        MAPPER.writeValue(entry.toFile(), node);
+    }
+
+    private URLClassLoader compile(String... sources) throws IOException {
+        File sourceDirectory = temporaryFolder.newFolder();
+        File outputDirectory = temporaryFolder.newFolder();
+
+        ImmutableList.Builder<String> arguments = ImmutableList.<String>builder()
+                .add("-classpath", System.getProperty("java.class.path"))
+                .add("-d", outputDirectory.getAbsolutePath());
+
+        for (String source : sources) {
+            String className = source.substring(source.indexOf("class ") + 6, source.indexOf(" {"));
+            Path sourceFile = sourceDirectory.toPath().resolve(className + ".java");
+            Files.write(sourceFile, source.getBytes(UTF_8));
+            arguments.add(sourceFile.toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, arguments.build().toArray(new String[0])));
+
+        return new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()}, DiskCacheTest.class.getClassLoader());
+    }
+}
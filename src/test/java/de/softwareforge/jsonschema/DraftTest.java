@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class DraftTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testSchemaVersions() {
+        assertSchemaVersion(SchemaDraft.DRAFT_04, JsonSchemaGeneratorBuilder.draftV4Schema());
+        assertSchemaVersion(SchemaDraft.DRAFT_07, JsonSchemaGeneratorBuilder.draftV7Schema());
+        assertSchemaVersion(SchemaDraft.DRAFT_2019_09, JsonSchemaGeneratorBuilder.draft201909Schema());
+        assertSchemaVersion(SchemaDraft.DRAFT_2020_12, JsonSchemaGeneratorBuilder.draft202012Schema());
+
+        assertEquals("https://json-schema.org/draft/2020-12/schema", SchemaDraft.DRAFT_2020_12.schemaUri());
+    }
+
+    @Test
+    public void testDraft4Keywords() {
+        ObjectNode schema = JsonSchemaGeneratorBuilder.draftV4Schema().build().generateSchema(Measurement.class);
+
+        JsonNode value = schema.at("/properties/value");
+        assertEquals("urn:value", value.get("id").asText());
+        assertEquals(10, value.get("maximum").asInt());
+        assertTrue(value.get("exclusiveMaximum").asBoolean());
+        assertEquals(0, value.get("minimum").asInt());
+        assertFalse(value.has("exclusiveMinimum"));
+        assertTrue(value.get("readonly").asBoolean());
+    }
+
+    @Test
+    public void testNewerDraftKeywords() {
+        for (SchemaDraft draft : ImmutableList.of(SchemaDraft.DRAFT_07, SchemaDraft.DRAFT_2019_09, SchemaDraft.DRAFT_2020_12)) {
+            ObjectNode schema = JsonSchemaGeneratorBuilder.forDraft(draft).build().generateSchema(Measurement.class);
+
+            JsonNode value = schema.at("/properties/value");
+            assertEquals("urn:value", value.get("$id").asText());
+            assertFalse(value.has("id"));
+            assertEquals(10, value.get("exclusiveMaximum").asInt());
+            assertFalse(value.has("maximum"));
+            assertEquals(0, value.get("minimum").asInt());
+            assertTrue(value.get("readOnly").asBoolean());
+        }
+    }
+
+    @Test
+    public void testDefinitions() {
+        ObjectNode draft7Schema = JsonSchemaGeneratorBuilder.draftV7Schema().useDefinitions().build().generateSchema(CanonicalSchemaTest.Order.class);
+        assertEquals("#/definitions/Address", draft7Schema.at("/properties/address/$ref").asText());
+        assertTrue(draft7Schema.at("/definitions/Address").isObject());
+
+        ObjectNode schema = JsonSchemaGeneratorBuilder.draft202012Schema().useDefinitions().build().generateSchema(CanonicalSchemaTest.Order.class);
+        assertEquals("#/$defs/Address", schema.at("/properties/address/$ref").asText());
+        assertTrue(schema.at("/$defs/Address").isObject());
+        assertFalse(schema.has("definitions"));
+
+        // references into $defs can be compiled
+        assertNotNull(SchemaCompiler.compile(schema));
+    }
+
+    @Test
+    public void testOnlyKeywordsDiffer() throws IOException {
+        ObjectNode draft4Schema = JsonSchemaGeneratorBuilder.draftV4Schema().build().generateSchema(CanonicalSchemaTest.Order.class);
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draft202012Schema().disableSchemaCache().build();
+        ObjectNode schema = schemaGenerator.generateSchema(CanonicalSchemaTest.Order.class);
+
+        assertEquals(SchemaDraft.DRAFT_2020_12.schemaUri(), schema.get("$schema").asText());
+        draft4Schema.put("$schema", SchemaDraft.DRAFT_2020_12.schemaUri());
+        assertEquals(draft4Schema, schema);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        schemaGenerator.writeSchema(CanonicalSchemaTest.Order.class, out);
+        assertEquals(schema.toString(), out.toString("UTF-8"));
+        assertEquals(schema.toString(), schemaGenerator.generateLazySchema(CanonicalSchemaTest.Order.class).toString());
+    }
+
+    @Test
+    public void testValidateNumericExclusiveBounds() {
+        for (SchemaDraft draft : SchemaDraft.values()) {
+            ObjectValidator<Measurement> validator = JsonSchemaGeneratorBuilder.forDraft(draft).build().generateObjectValidator(Measurement.class);
+            assertTrue(validator.isValid(new Measurement(9)));
+            assertTrue(validator.isValid(new Measurement(0)));
+            assertFalse(validator.isValid(new Measurement(10)));
+            assertFalse(validator.isValid(new Measurement(-1)));
+        }
+    }
+
+    @Test
+    public void testReferenceSiblings() throws IOException {
+        for (SchemaDraft draft : SchemaDraft.values()) {
+            JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.forDraft(draft).build();
+            ObjectValidator<Coupon> validator = schemaGenerator.generateObjectValidator(Coupon.class);
+            ObjectNode schema = schemaGenerator.generateSchema(Coupon.class);
+            SchemaValidator jsonValidator = SchemaValidator.compile(schema);
+            assertEquals(3, schema.at("/properties/alias/maxLength").asInt());
+
+            assertTrue(validator.isValid(new Coupon("SALE", "ABC")));
+            assertFalse(validator.isValid(new Coupon("SALE", "abc")));
+            assertTrue(jsonValidator.isValid(MAPPER.readTree("{\"code\":\"SALE\",\"alias\":\"ABC\"}")));
+            assertFalse(jsonValidator.isValid(MAPPER.readTree("{\"code\":\"SALE\",\"alias\":\"abc\"}")));
+
+            // up to draft 7, the keywords next to a reference are ignored
+            boolean siblingsApply = draft == SchemaDraft.DRAFT_2019_09 || draft == SchemaDraft.DRAFT_2020_12;
+            assertEquals(!siblingsApply, validator.isValid(new Coupon("SALE", "ABCD")));
+            assertEquals(!siblingsApply, jsonValidator.isValid(MAPPER.readTree("{\"code\":\"SALE\",\"alias\":\"ABCD\"}")));
+            assertEquals(!siblingsApply, jsonValidator.isValid(MAPPER.getFactory().createParser("{\"code\":\"SALE\",\"alias\":\"ABCD\"}")));
+
+            // without $schema, the draft is given
+            schema.remove("$schema");
+            assertEquals(!siblingsApply, SchemaValidator.compile(schema, draft).isValid(MAPPER.readTree("{\"alias\":\"ABCD\"}")));
+        }
+    }
+
+    private static void assertSchemaVersion(SchemaDraft draft, JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder builder) {
+        ObjectNode schema = builder.build().generateSchema(SchemaValidatorTest.Address.class);
+        assertEquals(draft.schemaUri(), schema.get("$schema").asText());
+    }
+
+    public static class Coupon {
+
+        private final String code;
+        private final String alias;
+
+        public Coupon(String code, String alias) {
+            this.code = code;
+            this.alias = alias;
+        }
+
+        @JsonSchema(pattern = "^[A-Z]+$")
+        public String getCode() {
+            return code;
+        }
+
+        @JsonSchema($ref = "#/properties/code", maxLength = 3)
+        public String getAlias() {
+            return alias;
+        }
+    }
+
+    public static class Measurement {
+
+        private final int value;
+
+        public Measurement(int value) {
+            this.value = value;
+        }
+
+        @JsonSchema(id = "urn:value", minimum = 0, maximum = 10, exclusiveMaximum = true, readonly = true)
+        public int getValue() {
+            return value;
+        }
+    }
+}
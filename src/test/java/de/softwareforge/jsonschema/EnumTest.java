@@ -51,6 +51,30 @@ public class EnumTest {
         testEnumValues(properties, "result", "NOT_FOUND", "UNAUTHORIZED", null);
     }
 
+    @Test
+    public void testNullableEnumClass() throws IOException {
+        ObjectNode properties = testWithProperties(generateSchema(schemaGenerator, NullableStatus.class), "status", "code");
+
+        // an enum class has no type, so null is only added to its values. A "null" type would reject every constant.
+        assertEquals(MAPPER.readTree("{\"enum\":[\"NOT_FOUND\",\"UNAUTHORIZED\",null]}"), properties.get("status"));
+        // a simple type with enum values keeps its type and accepts null as well
+        assertEquals(MAPPER.readTree("{\"type\":[\"string\",\"null\"],\"enum\":[\"A\",\"B\",null]}"), properties.get("code"));
+    }
+
+    @Test
+    public void testEnumArrayIsShared() throws IOException {
+        JsonSchemaGenerator uncachedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().schemaCacheSize(0).build();
+
+        ObjectNode properties = testWithProperties(generateSchema(uncachedGenerator, Hyperthing.class), "method", "resultCode", "floatingResultCode", "result");
+        testEnumValues(properties, "result", "NOT_FOUND", "UNAUTHORIZED", null);
+
+        // the null of the nullable property does not leak into other schemas
+        ObjectNode schema = generateSchema(uncachedGenerator, SimpleEnum.class);
+        assertEquals(MAPPER.createArrayNode().add("NOT_FOUND").add("UNAUTHORIZED"), schema.get("enum"));
+        properties = testWithProperties(generateSchema(uncachedGenerator, Hyperthing.class), "method", "resultCode", "floatingResultCode", "result");
+        testEnumValues(properties, "result", "NOT_FOUND", "UNAUTHORIZED", null);
+    }
+
     public enum IntegerEnum {
         NOT_FOUND(404), UNAUTHORIZED(401);
         private int numVal;
@@ -139,4 +163,19 @@ public class EnumTest {
             this.result = result;
         }
     }
+
+    static class NullableStatus {
+
+        @Nullable
+        @JsonProperty
+        public SimpleEnum getStatus() {
+            return null;
+        }
+
+        @Nullable
+        @JsonSchema(enums = {"A", "B"})
+        public String getCode() {
+            return null;
+        }
+    }
 }
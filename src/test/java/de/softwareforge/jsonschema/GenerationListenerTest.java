@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import org.junit.Test;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Member;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class GenerationListenerTest {
+
+    @Test
+    public void testEvents() {
+        RecordingListener listener = new RecordingListener();
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().listener(listener).build();
+
+        schemaGenerator.generateSchema(Contact.class);
+        assertEquals(ImmutableList.of(
+                "cacheMiss Contact MEMORY",
+                "enter Contact",
+                "member getEmail",
+                "annotations getEmail",
+                "enter String",
+                "nodes String 2",
+                "exit String",
+                "nodes Contact 4",
+                "exit Contact"), listener.events);
+
+        listener.events.clear();
+        schemaGenerator.generateSchema(Contact.class);
+        assertEquals(ImmutableList.of("cacheHit Contact MEMORY"), listener.events);
+
+        // the properties of the class were built by the first generator
+        RecordingListener otherListener = new RecordingListener();
+        JsonSchemaGeneratorBuilder.draftV4Schema().listener(otherListener).build().generateSchema(Contact.class);
+        assertEquals(ImmutableList.of(
+                "cacheMiss Contact MEMORY",
+                "enter Contact",
+                "enter String",
+                "nodes String 2",
+                "exit String",
+                "nodes Contact 4",
+                "exit Contact"), otherListener.events);
+    }
+
+    @Test
+    public void testCosts() {
+        GenerationCostListener listener = new GenerationCostListener();
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().listener(listener).build();
+
+        ObjectNode schema = schemaGenerator.generateSchema(Customer.class);
+        schemaGenerator.generateSchema(Customer.class);
+
+        Map<Type, GenerationCostListener.TypeCost> costs = listener.costs().stream()
+                .collect(Collectors.toMap(GenerationCostListener.TypeCost::type, Function.identity()));
+
+        GenerationCostListener.TypeCost customer = costs.get(Customer.class);
+        assertEquals(1, customer.occurrences());
+        assertEquals(3, customer.membersScanned());
+        assertEquals(3, customer.annotationsResolved());
+        assertEquals(1, customer.cacheHits());
+        assertEquals(1, customer.cacheMisses());
+        assertTrue(customer.selfTime().compareTo(customer.totalTime()) <= 0);
+
+        // the name, the items of the tags and the city
+        assertEquals(3, costs.get(String.class).occurrences());
+        assertEquals(1, costs.get(Location.class).membersScanned());
+
+        // every node is reported exactly once
+        assertEquals(countNodes(schema), listener.costs().stream().mapToLong(GenerationCostListener.TypeCost::nodesGenerated).sum());
+
+        // sorted by the time for the type itself
+        List<GenerationCostListener.TypeCost> sortedCosts = listener.costs();
+        for (int i = 1; i < sortedCosts.size(); i++) {
+            assertTrue(sortedCosts.get(i - 1).selfTime().compareTo(sortedCosts.get(i).selfTime()) >= 0);
+        }
+
+        listener.reset();
+        assertTrue(listener.costs().isEmpty());
+    }
+
+    @Test
+    public void testParallelGeneration() {
+        GenerationCostListener listener = new GenerationCostListener();
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().listener(listener).build();
+
+        SchemaBatchResult result = schemaGenerator.generateSchemas(ImmutableList.of(SchemaValidatorTest.Account.class, ProductTest.Product.class,
+                EnumTest.Hyperthing.class));
+        assertTrue(result.failures().isEmpty());
+
+        long nodes = result.schemas().values().stream().mapToLong(GenerationListenerTest::countNodes).sum();
+        assertEquals(nodes, listener.costs().stream().mapToLong(GenerationCostListener.TypeCost::nodesGenerated).sum());
+    }
+
+    private static long countNodes(JsonNode node) {
+        long count = 1;
+        for (JsonNode element : node) {
+            count += countNodes(element);
+        }
+        return count;
+    }
+
+    private static final class RecordingListener implements GenerationListener {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void typeEntered(Type type) {
+            events.add("enter " + name(type));
+        }
+
+        @Override
+        public void typeExited(Type type, long nanos) {
+            events.add("exit " + name(type));
+        }
+
+        @Override
+        public void memberScanned(Member member) {
+            events.add("member " + member.getName());
+        }
+
+        @Override
+        public void annotationsResolved(AnnotatedElement element) {
+            events.add("annotations " + ((Member) element).getName());
+        }
+
+        @Override
+        public void cacheHit(Class<?> type, CacheKind cache) {
+            events.add("cacheHit " + type.getSimpleName() + " " + cache);
+        }
+
+        @Override
+        public void cacheMiss(Class<?> type, CacheKind cache) {
+            events.add("cacheMiss " + type.getSimpleName() + " " + cache);
+        }
+
+        @Override
+        public void nodesGenerated(Type type, int count) {
+            events.add("nodes " + name(type) + " " + count);
+        }
+
+        private static String name(Type type) {
+            return ((Class<?>) type).getSimpleName();
+        }
+    }
+
+    // only used here, so that the properties are built while the listener is registered.
+    public static class Contact {
+
+        @JsonSchema
+        public String getEmail() {
+            return null;
+        }
+    }
+
+    public static class Customer {
+
+        @JsonSchema
+        public String getName() {
+            return null;
+        }
+
+        @JsonSchema
+        public List<String> getTags() {
+            return null;
+        }
+
+        @JsonSchema
+        public Location getLocation() {
+            return null;
+        }
+    }
+
+    public static class Location {
+
+        @JsonSchema
+        public String getCity() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class InterningTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testInternSubschemas() throws IOException {
+        SchemaInterner interner = new SchemaInterner();
+
+        ObjectNode first = interner.intern((ObjectNode) MAPPER.readTree("{\"a\":{\"type\":\"string\"},\"b\":[1,{\"type\":\"string\"}]}"));
+        ObjectNode second = interner.intern((ObjectNode) MAPPER.readTree("{\"c\":{\"type\":\"string\"},\"d\":[1,{\"type\":\"string\"}]}"));
+
+        assertSame(first.get("a"), first.at("/b/1"));
+        assertSame(first.get("a"), second.get("c"));
+        assertSame(first.get("b"), second.get("d"));
+        assertSame(first, interner.intern((ObjectNode) MAPPER.readTree("{\"a\":{\"type\":\"string\"},\"b\":[1,{\"type\":\"string\"}]}")));
+
+        // equal objects with a different order of fields are not shared, the order is kept.
+        ObjectNode reordered = interner.intern((ObjectNode) MAPPER.readTree("{\"b\":[1,{\"type\":\"string\"}],\"a\":{\"type\":\"string\"}}"));
+        assertEquals(first, reordered);
+        assertNotSame(first, reordered);
+        assertEquals("{\"b\":[1,{\"type\":\"string\"}],\"a\":{\"type\":\"string\"}}", reordered.toString());
+        assertSame(first.get("a"), reordered.get("a"));
+    }
+
+    @Test
+    public void testGeneratorMode() throws IOException {
+        JsonSchemaGenerator internedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().internSubschemas().build();
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+        for (Class<?> type : ImmutableList.of(SchemaValidatorTest.Account.class, ProductTest.Product.class, EnumTest.Hyperthing.class,
+                CanonicalSchemaTest.Order.class, CanonicalSchemaTest.Invoice.class)) {
+            // twice, the second time from the cache
+            for (int i = 0; i < 2; i++) {
+                assertEquals(schemaGenerator.generateSchema(type).toString(), internedGenerator.generateSchema(type).toString());
+                assertEquals(write(schemaGenerator, type), write(internedGenerator, type));
+                assertEquals(schemaGenerator.generateCanonicalSchema(type), internedGenerator.generateCanonicalSchema(type));
+            }
+        }
+
+        // copies can be modified without changing other schemas
+        ObjectNode order = internedGenerator.generateSchema(CanonicalSchemaTest.Order.class);
+        ((ObjectNode) order.at("/properties/address")).put("modified", true);
+        assertEquals(schemaGenerator.generateSchema(CanonicalSchemaTest.Invoice.class),
+                internedGenerator.generateSchema(CanonicalSchemaTest.Invoice.class));
+        assertEquals(schemaGenerator.generateSchema(CanonicalSchemaTest.Order.class),
+                internedGenerator.generateSchema(CanonicalSchemaTest.Order.class));
+    }
+
+    @Test
+    public void testNodeFactory() {
+        InterningNodeFactory nodeFactory = new InterningNodeFactory();
+        assertSame(nodeFactory.textNode("string"), new InterningNodeFactory().textNode("string"));
+        assertSame(nodeFactory.numberNode(1000L), nodeFactory.numberNode(1000L));
+        assertNotSame(nodeFactory.numberNode(1000L), nodeFactory.numberNode(1000));
+
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().customNodeFactory(nodeFactory).disableSchemaCache().build();
+        ObjectNode first = schemaGenerator.generateSchema(SchemaValidatorTest.Account.class);
+        ObjectNode second = schemaGenerator.generateSchema(SchemaValidatorTest.Account.class);
+        assertNotSame(first.at("/properties/login"), second.at("/properties/login"));
+        assertSame(first.at("/properties/login/type"), second.at("/properties/tags/items/type"));
+        assertSame(first.at("/properties/login/pattern"), second.at("/properties/login/pattern"));
+    }
+
+    private static String write(JsonSchemaGenerator schemaGenerator, Class<?> type) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        schemaGenerator.writeSchema(type, out);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class LazySchemaTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // cached schemas are returned completely
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().schemaCacheSize(0).build();
+
+    @Test
+    public void testSameAsGeneratedSchema() throws IOException {
+        for (Class<?> type : ImmutableList.of(SchemaValidatorTest.Account.class, ProductTest.Product.class, EnumTest.Hyperthing.class)) {
+            ObjectNode schema = schemaGenerator.generateSchema(type);
+
+            assertTrue(schemaGenerator.generateLazySchema(type) instanceof LazySchemaNode);
+            assertEquals(schema, schemaGenerator.generateLazySchema(type).deepCopy());
+            assertEquals(schemaGenerator.generateLazySchema(type), schema);
+            assertEquals(MAPPER.writeValueAsString(schema), MAPPER.writeValueAsString(schemaGenerator.generateLazySchema(type)));
+        }
+    }
+
+    @Test
+    public void testSubschemasAreGeneratedWhenRead() {
+        ObjectNode schema = schemaGenerator.generateLazySchema(SchemaValidatorTest.Account.class);
+        assertFalse(((LazySchemaNode) schema).isMaterialized());
+
+        JsonNode properties = schema.get("properties");
+        assertTrue(((LazySchemaNode) schema).isMaterialized());
+
+        LazySchemaNode address = (LazySchemaNode) properties.get("address");
+        LazySchemaNode login = (LazySchemaNode) properties.get("login");
+        assertFalse(address.isMaterialized());
+        assertFalse(login.isMaterialized());
+
+        assertEquals("string", address.get("properties").get("street").get("type").asText());
+        assertTrue(address.isMaterialized());
+        assertFalse(login.isMaterialized());
+    }
+
+    @Test
+    public void testModification() {
+        ObjectNode schema = schemaGenerator.generateLazySchema(ProductTest.Product.class);
+        schema.put("title", "changed");
+
+        ObjectNode expected = schemaGenerator.generateSchema(ProductTest.Product.class);
+        expected.put("title", "changed");
+        assertEquals(expected, schema.deepCopy());
+    }
+
+    @Test
+    public void testRecursionFailsWhenRead() {
+        ObjectNode schema = schemaGenerator.generateLazySchema(ObjectValidatorTest.Node.class);
+        JsonNode children = schema.get("properties").get("children");
+        assertEquals("array", children.get("type").asText());
+
+        try {
+            children.get("items").size();
+            fail("recursion not detected");
+        } catch (IllegalStateException e) {
+            // expected, the items are a node again
+        }
+
+        // does not return a partial schema on the next access
+        try {
+            children.get("items").size();
+            fail("recursion not detected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        ObjectNode schema = schemaGenerator.generateLazySchema(SchemaValidatorTest.Account.class);
+        String expected = schemaGenerator.generateSchema(SchemaValidatorTest.Account.class).toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(CompletableFuture.supplyAsync(schema::toString, executor));
+            }
+            for (CompletableFuture<String> future : futures) {
+                assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDefinitionsAreGeneratedCompletely() {
+        JsonSchemaGenerator definitionsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().useDefinitions().build();
+        ObjectNode schema = definitionsGenerator.generateLazySchema(DefinitionsTest.TreeNode.class);
+
+        assertFalse(schema instanceof LazySchemaNode);
+        assertEquals(definitionsGenerator.generateSchema(DefinitionsTest.TreeNode.class), schema);
+    }
+}
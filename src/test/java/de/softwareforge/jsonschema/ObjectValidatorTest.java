@@ -0,0 +1,265 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public class ObjectValidatorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+    @Test
+    public void testValidObject() {
+        ObjectValidator<Customer> validator = schemaGenerator.generateObjectValidator(Customer.class);
+
+        Customer customer = new Customer("alice", 30, SchemaValidatorTest.Level.BASIC, ImmutableList.of("a", "b"), new Address("Main St"));
+        assertTrue(validator.isValid(customer));
+        assertTrue(validator.validate(customer).isValid());
+    }
+
+    @Test
+    public void testAllErrors() {
+        ObjectValidator<Customer> validator = schemaGenerator.generateObjectValidator(Customer.class);
+
+        Customer customer = new Customer("Al", 12, null, ImmutableList.of("a", "a"), new Address("Main Street"));
+        assertFalse(validator.isValid(customer));
+        assertEquals(ImmutableList.of("/address/street:maxLength", "/age:minimum", "/login:minLength", "/login:pattern", "/tags:uniqueItems"),
+                describe(validator.validate(customer).errors()));
+    }
+
+    @Test
+    public void testNullValues() {
+        ObjectValidator<Customer> validator = schemaGenerator.generateObjectValidator(Customer.class);
+
+        // level is nullable, tags are optional
+        assertTrue(validator.isValid(new Customer("alice", 30, null, null, new Address("Main St"))));
+        assertEquals(ImmutableList.of(":required"), describe(validator.validate(new Customer("alice", 30, null, null, null)).errors()));
+        assertEquals(ImmutableList.of("/address:required"), describe(validator.validate(new Customer("alice", 30, null, null, new Address(null))).errors()));
+    }
+
+    @Test
+    public void testEnumProperties() {
+        ObjectValidator<Palette> validator = schemaGenerator.generateObjectValidator(Palette.class);
+        SchemaValidator jsonValidator = SchemaValidator.compile(schemaGenerator.generateSchema(Palette.class));
+
+        // the schemas of enum classes have no type, a null enum is missing unless it is nullable
+        Palette palette = new Palette(null, null, SchemaValidatorTest.Level.BASIC);
+        assertTrue(validator.isValid(palette));
+        assertTrue(jsonValidator.isValid(MAPPER.valueToTree(palette)));
+
+        assertTrue(validator.isValid(new Palette(SchemaValidatorTest.Level.BASIC, SchemaValidatorTest.Level.PREMIUM, SchemaValidatorTest.Level.BASIC)));
+        assertEquals(ImmutableList.of(":required"), describe(validator.validate(new Palette(null, null, null)).errors()));
+    }
+
+    @Test
+    public void testOptional() {
+        ObjectValidator<Nickname> validator = schemaGenerator.generateObjectValidator(Nickname.class);
+
+        assertTrue(validator.isValid(new Nickname(Optional.empty())));
+        assertTrue(validator.isValid(new Nickname(Optional.of("bob"))));
+        assertFalse(validator.isValid(new Nickname(Optional.of("robert"))));
+    }
+
+    @Test
+    public void testFields() {
+        JsonSchemaGenerator fieldsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().processFields().build();
+        ObjectValidator<Counter> validator = fieldsGenerator.generateObjectValidator(Counter.class);
+
+        assertTrue(validator.isValid(new Counter(10, ImmutableList.of(1, 2))));
+        assertEquals(ImmutableList.of("/count:maximum", "/values:minItems"), describe(validator.validate(new Counter(11, ImmutableList.of())).errors()));
+    }
+
+    @Test
+    public void testRecursiveType() {
+        JsonSchemaGenerator definitionsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().useDefinitions().build();
+        ObjectValidator<Node> validator = definitionsGenerator.generateObjectValidator(Node.class);
+
+        Node valid = new Node("a", ImmutableList.of(new Node("b", ImmutableList.of()), new Node("c", ImmutableList.of(new Node("d", null)))));
+        assertTrue(validator.isValid(valid));
+
+        Node invalid = new Node("a", ImmutableList.of(new Node("b", ImmutableList.of()), new Node("c", ImmutableList.of(new Node("dddd", null)))));
+        assertEquals(ImmutableList.of("/children/1/children/0/name:maxLength"), describe(validator.validate(invalid).errors()));
+    }
+
+    @Test
+    public void testMatchesJsonValidation() throws Exception {
+        ObjectValidator<Customer> validator = schemaGenerator.generateObjectValidator(Customer.class);
+        SchemaValidator jsonValidator = SchemaValidator.compile(schemaGenerator.generateSchema(Customer.class));
+
+        for (Customer customer : ImmutableList.of(
+                new Customer("alice", 30, SchemaValidatorTest.Level.PREMIUM, ImmutableList.of("a"), new Address("Main St")),
+                new Customer("alice", 121, SchemaValidatorTest.Level.BASIC, ImmutableList.of(), new Address("Main St")),
+                new Customer("alice!", 30, SchemaValidatorTest.Level.BASIC, ImmutableList.of("b", "b"), new Address("Main St")))) {
+            assertEquals(jsonValidator.isValid(MAPPER.valueToTree(customer)), validator.isValid(customer));
+        }
+    }
+
+    // paths are sorted, properties are read in no particular order
+    private static List<String> describe(List<ValidationError> errors) {
+        return errors.stream()
+                .map(error -> error.path() + ":" + error.keyword())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    public static class Customer {
+
+        private final String login;
+        private final int age;
+        private final SchemaValidatorTest.Level level;
+        private final List<String> tags;
+        private final Address address;
+
+        public Customer(String login, int age, SchemaValidatorTest.Level level, List<String> tags, Address address) {
+            this.login = login;
+            this.age = age;
+            this.level = level;
+            this.tags = tags;
+            this.address = address;
+        }
+
+        @JsonSchema(required = true, pattern = "^[a-z]+$", minLength = 3, maxLength = 8)
+        public String getLogin() {
+            return login;
+        }
+
+        @JsonSchema(minimum = 18, maximum = 120)
+        public int getAge() {
+            return age;
+        }
+
+        @Nullable
+        @JsonSchema
+        public SchemaValidatorTest.Level getLevel() {
+            return level;
+        }
+
+        @JsonSchema(minItems = 1, uniqueItems = true)
+        public List<String> getTags() {
+            return tags;
+        }
+
+        @JsonSchema(required = true)
+        public Address getAddress() {
+            return address;
+        }
+    }
+
+    public static class Address {
+
+        private final String street;
+
+        public Address(String street) {
+            this.street = street;
+        }
+
+        @JsonSchema(required = true, maxLength = 10)
+        public String getStreet() {
+            return street;
+        }
+    }
+
+    public static class Palette {
+
+        private final SchemaValidatorTest.Level color;
+        private final SchemaValidatorTest.Level accent;
+        private final SchemaValidatorTest.Level background;
+
+        public Palette(SchemaValidatorTest.Level color, SchemaValidatorTest.Level accent, SchemaValidatorTest.Level background) {
+            this.color = color;
+            this.accent = accent;
+            this.background = background;
+        }
+
+        @JsonSchema
+        public SchemaValidatorTest.Level getColor() {
+            return color;
+        }
+
+        @Nullable
+        @JsonSchema
+        public SchemaValidatorTest.Level getAccent() {
+            return accent;
+        }
+
+        @JsonSchema(required = true)
+        public SchemaValidatorTest.Level getBackground() {
+            return background;
+        }
+    }
+
+    public static class Nickname {
+
+        private final Optional<String> nickname;
+
+        public Nickname(Optional<String> nickname) {
+            this.nickname = nickname;
+        }
+
+        @JsonSchema(maxLength = 5)
+        public Optional<String> getNickname() {
+            return nickname;
+        }
+    }
+
+    static class Counter {
+
+        @JsonSchema(maximum = 10)
+        private final int count;
+
+        @JsonSchema(minItems = 1)
+        private final List<Integer> values;
+
+        Counter(int count, List<Integer> values) {
+            this.count = count;
+            this.values = values;
+        }
+    }
+
+    public static class Node {
+
+        private final String name;
+        private final List<Node> children;
+
+        public Node(String name, List<Node> children) {
+            this.name = name;
+            this.children = children;
+        }
+
+        @JsonSchema(maxLength = 3)
+        public String getName() {
+            return name;
+        }
+
+        @JsonSchema
+        public List<Node> getChildren() {
+            return children;
+        }
+    }
+}
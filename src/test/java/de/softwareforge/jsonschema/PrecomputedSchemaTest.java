@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class PrecomputedSchemaTest {
+
+    @Test
+    public void testPrecomputedSchema() {
+        JsonSchemaGenerator generator = JsonSchemaGeneratorBuilder.draftV4Schema().usePrecomputedSchemas().build();
+        JsonNode schema = generator.generateSchema(Precomputed.class);
+
+        assertEquals("http://json-schema.org/draft-04/schema#", schema.get("$schema").asText());
+        assertEquals("precomputed", schema.get("title").asText());
+        assertTrue(schema.get("properties").has("name"));
+        assertFalse(schema.get("properties").has("value"));
+    }
+
+    @Test
+    public void testPrecomputedSchemaWithoutVersion() {
+        JsonSchemaGenerator generator = JsonSchemaGeneratorBuilder.draftV4Schema().removeSchemaVersion().usePrecomputedSchemas().build();
+        JsonNode schema = generator.generateSchema(Precomputed.class);
+
+        assertFalse(schema.has("$schema"));
+        assertEquals("precomputed", schema.get("title").asText());
+    }
+
+    @Test
+    public void testStreamPrecomputedSchema() throws IOException {
+        JsonSchemaGenerator generator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().usePrecomputedSchemas().build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeSchema(Precomputed.class, out);
+
+        assertEquals(generator.generateSchema(Precomputed.class), new ObjectMapper().readTree(out.toByteArray()));
+    }
+
+    @Test
+    public void testPrecomputedSchemasDisabled() {
+        JsonSchemaGenerator generator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+        JsonNode schema = generator.generateSchema(Precomputed.class);
+
+        assertEquals("reflected", schema.get("title").asText());
+        assertTrue(schema.get("properties").has("value"));
+    }
+
+    @Test
+    public void testConfigurationMismatch() {
+        JsonSchemaGenerator generator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSortSchemaProperties().usePrecomputedSchemas().build();
+        JsonNode schema = generator.generateSchema(Precomputed.class);
+
+        assertEquals("reflected", schema.get("title").asText());
+    }
+
+    @Test
+    public void testMissingPrecomputedSchema() {
+        JsonSchemaGenerator generator = JsonSchemaGeneratorBuilder.draftV4Schema().usePrecomputedSchemas().build();
+
+        assertEquals(JsonSchemaGeneratorBuilder.draftV4Schema().build().generateSchema(ProductTest.Product.class),
+                generator.generateSchema(ProductTest.Product.class));
+    }
+
+    @JsonSchema(title = "reflected")
+    public static class Precomputed {
+
+        @JsonSchema
+        public int getValue() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static de.softwareforge.jsonschema.TestUtility.generateSchema;
+import static de.softwareforge.jsonschema.TestUtility.testWithProperties;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.junit.Test;
+
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+
+public class PropertyNameTest {
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+    @Test
+    public void testPropertyNames() {
+        testWithProperties(generateSchema(schemaGenerator, Names.class),
+                "name", "active", "isBoxed", "URL", "x", "value", "getHidden", "count");
+    }
+
+    @Test
+    public void testMatchesIntrospector() throws Exception {
+        ClassMetadata metadata = ClassMetadata.forClass(Names.class);
+
+        for (Map.Entry<Method, AttributeHolder> entry : metadata.methods().entrySet()) {
+            Method method = entry.getKey();
+            Optional<String> expected = Optional.empty();
+            for (PropertyDescriptor pd : Introspector.getBeanInfo(Names.class).getPropertyDescriptors()) {
+                if (method.equals(pd.getReadMethod()) || method.equals(pd.getWriteMethod())) {
+                    expected = Optional.of(pd.getName());
+                }
+            }
+            assertEquals(method.getName(), expected, metadata.propertyName(method));
+        }
+    }
+
+    @Test
+    public void testNonPublicMethodsHaveNoPropertyName() throws Exception {
+        Method getHidden = Names.class.getDeclaredMethod("getHidden");
+        assertFalse(ClassMetadata.forClass(Names.class).propertyName(getHidden).isPresent());
+    }
+
+    static class Names {
+
+        @JsonProperty
+        public String getName() {
+            return null;
+        }
+
+        @JsonProperty
+        public boolean isActive() {
+            return false;
+        }
+
+        // only primitive booleans are bean properties
+        @JsonProperty
+        public Boolean isBoxed() {
+            return null;
+        }
+
+        @JsonProperty
+        public String getURL() {
+            return null;
+        }
+
+        @JsonProperty
+        public int getX() {
+            return 0;
+        }
+
+        @JsonProperty
+        public String value() {
+            return null;
+        }
+
+        // the introspector does not see non-public methods
+        @JsonProperty
+        String getHidden() {
+            return null;
+        }
+
+        private int count;
+
+        public int getCount() {
+            return count;
+        }
+
+        @JsonProperty
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class SchemaArchiveTest {
+
+    private static final List<Class<?>> TYPES = ImmutableList.of(SchemaValidatorTest.Account.class, ProductTest.Product.class,
+            EnumTest.Hyperthing.class, SchemaValidatorTest.Address.class, CanonicalSchemaTest.Order.class);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testExportAndRead() throws IOException {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+        Path file = temporaryFolder.getRoot().toPath().resolve("schemas.archive");
+        schemaGenerator.exportArchive(TYPES, file);
+
+        SchemaArchive archive = SchemaArchive.open(file);
+        assertEquals(TYPES.size(), archive.size());
+        assertEquals(TYPES.stream().map(Class::getName).sorted().collect(ImmutableList.toImmutableList()), archive.typeNames());
+
+        for (Class<?> type : TYPES) {
+            CanonicalSchema canonicalSchema = schemaGenerator.generateCanonicalSchema(type);
+            assertEquals(canonicalSchema, CanonicalSchema.of(archive.schema(type.getName()).get()));
+            assertEquals(canonicalSchema.fingerprint(), archive.fingerprint(type.getName()).get());
+            assertEquals(canonicalSchema.bytes(), archive.bytes(type.getName()).get());
+            assertEquals(canonicalSchema, CanonicalSchema.of(archive.schema(canonicalSchema.fingerprint()).get()));
+        }
+
+        assertFalse(archive.schema("de.softwareforge.jsonschema.Missing").isPresent());
+        assertFalse(archive.fingerprint("").isPresent());
+        assertFalse(archive.schema(HashCode.fromBytes(new byte[32])).isPresent());
+    }
+
+    @Test
+    public void testEmptyArchive() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("empty.archive");
+        JsonSchemaGeneratorBuilder.draftV4Schema().build().exportArchive(ImmutableList.of(), file);
+
+        SchemaArchive archive = SchemaArchive.open(file);
+        assertEquals(0, archive.size());
+        assertFalse(archive.schema(SchemaValidatorTest.Account.class.getName()).isPresent());
+    }
+
+    @Test
+    public void testInvalidArchive() throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, "{\"type\": \"object\"}".getBytes(UTF_8));
+
+        try {
+            SchemaArchive.open(file);
+            fail();
+        } catch (IOException e) {
+            assertEquals(file + " is not a schema archive", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCorruptArchive() throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("schemas.archive");
+        JsonSchemaGeneratorBuilder.draftV4Schema().build().exportArchive(TYPES, file);
+        byte[] archive = Files.readAllBytes(file);
+        HashCode fingerprint = SchemaArchive.open(file).fingerprint(SchemaValidatorTest.Account.class.getName()).get();
+
+        // more entries than fit into the file
+        byte[] corrupt = archive.clone();
+        ByteBuffer.wrap(corrupt).putInt(8, Integer.MAX_VALUE);
+        try {
+            SchemaArchive.open(write(corrupt));
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("is truncated"));
+        }
+
+        // the last schema ends behind the end of the file. Only the header is checked when the archive is opened.
+        SchemaArchive truncatedArchive = SchemaArchive.open(write(Arrays.copyOf(archive, archive.length - 10)));
+        assertTrue(truncatedArchive.schema(SchemaValidatorTest.Account.class.getName()).isPresent());
+        assertCorrupt(() -> truncatedArchive.bytes(SchemaValidatorTest.Address.class.getName()), "has an invalid entry 4");
+
+        // entry numbers in the fingerprint index that do not exist
+        corrupt = archive.clone();
+        for (int i = 0; i < TYPES.size(); i++) {
+            ByteBuffer.wrap(corrupt).putInt(12 + TYPES.size() * 48 + i * 4, TYPES.size());
+        }
+        SchemaArchive corruptArchive = SchemaArchive.open(write(corrupt));
+        assertTrue(corruptArchive.schema(SchemaValidatorTest.Account.class.getName()).isPresent());
+        assertCorrupt(() -> corruptArchive.schema(fingerprint), "has an invalid fingerprint index");
+    }
+
+    private Path write(byte[] archive) throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, archive);
+        return file;
+    }
+
+    private static void assertCorrupt(Runnable lookup, String message) {
+        try {
+            lookup.run();
+            fail();
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
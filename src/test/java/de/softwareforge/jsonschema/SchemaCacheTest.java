@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static de.softwareforge.jsonschema.TestUtility.generateSchema;
+import static de.softwareforge.jsonschema.TestUtility.testWithProperties;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+
+public class SchemaCacheTest {
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+    @Test
+    public void testCachedSchemaIsCopied() {
+        ObjectNode first = generateSchema(schemaGenerator, Cached.class);
+        ObjectNode second = generateSchema(schemaGenerator, Cached.class);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertNotSame(first.get("properties"), second.get("properties"));
+    }
+
+    @Test
+    public void testCachedSchemaCanNotBeModified() {
+        ObjectNode first = generateSchema(schemaGenerator, Cached.class);
+        ObjectNode properties = testWithProperties(first, "name");
+        properties.remove("name");
+        first.put("type", "string");
+
+        ObjectNode second = generateSchema(schemaGenerator, Cached.class);
+        testWithProperties(second, "name");
+        assertEquals("object", second.get("type").asText());
+    }
+
+    @Test
+    public void testInvalidateCache() {
+        ObjectNode first = generateSchema(schemaGenerator, Cached.class);
+        schemaGenerator.invalidateCache();
+        ObjectNode second = generateSchema(schemaGenerator, Cached.class);
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testDisabledCache() {
+        JsonSchemaGenerator uncachedGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().build();
+
+        ObjectNode first = generateSchema(uncachedGenerator, Cached.class);
+        ObjectNode second = generateSchema(uncachedGenerator, Cached.class);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(generateSchema(schemaGenerator, Cached.class), first);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCacheSize() {
+        JsonSchemaGeneratorBuilder.draftV4Schema().schemaCacheSize(-1);
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                generateSchema(schemaGenerator, Broken.class);
+                fail("expected an exception");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().startsWith("Property name defined multiple times"));
+            }
+        }
+    }
+
+    static class Cached {
+
+        @JsonProperty
+        public String getName() {
+            return "name";
+        }
+    }
+
+    static class Broken {
+
+        @JsonProperty("name")
+        public String getFirstName() {
+            return "first";
+        }
+
+        @JsonProperty("name")
+        public String getLastName() {
+            return "last";
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.softwareforge.jsonschema.scan.Category;
+import de.softwareforge.jsonschema.scan.Initializer;
+import de.softwareforge.jsonschema.scan.Item;
+import de.softwareforge.jsonschema.scan.Order;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+public class SchemaScannerTest {
+
+    private static final String SCAN_PACKAGE = "de.softwareforge.jsonschema.scan";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+    private final SchemaScanner scanner = new SchemaScanner(schemaGenerator, SchemaScannerTest.class.getClassLoader());
+
+    @Test
+    public void testScanPackage() throws Exception {
+        SchemaScanResult result = scanner.scanPackages(ImmutableList.of(SCAN_PACKAGE));
+
+        assertScanPackage(result);
+        assertTrue(result.loadFailures().isEmpty());
+        assertFalse(Initializer.Tracker.INITIALIZED.get());
+    }
+
+    @Test
+    public void testScanDirectory() throws Exception {
+        Path testClasses = Paths.get(SchemaScannerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        SchemaScanResult result = scanner.scanPaths(ImmutableList.of(testClasses));
+
+        assertTrue(result.batchResult().schemas().keySet().containsAll(ImmutableSet.of(Order.class, Item.class, Initializer.class,
+                PrecomputedSchemaTest.Precomputed.class)));
+        assertTrue(result.batchResult().failures().containsKey(Category.class));
+        assertFalse(Initializer.Tracker.INITIALIZED.get());
+    }
+
+    @Test
+    public void testScanArchive() throws Exception {
+        Path archive = temporaryFolder.getRoot().toPath().resolve("scan.jar");
+        Path packageDirectory = Paths.get(Order.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .resolve(SCAN_PACKAGE.replace('.', '/'));
+
+        try (FileSystem fileSystem = FileSystems.newFileSystem(URI.create("jar:" + archive.toUri()), ImmutableMap.of("create", "true"))) {
+            Path target = Files.createDirectories(fileSystem.getPath("/", SCAN_PACKAGE.split("\\.")));
+            try (Stream<Path> files = Files.list(packageDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, target.resolve(file.getFileName().toString()));
+                }
+            }
+            // looks like an annotated class, but can not be loaded
+            Files.write(target.resolve("Missing.class"), "Lde/softwareforge/jsonschema/annotations/JsonSchema;".getBytes(UTF_8));
+        }
+
+        SchemaScanResult result = scanner.scanPaths(ImmutableList.of(archive));
+
+        assertEquals(8, result.scannedClasses());
+        assertEquals(ImmutableSet.of(SCAN_PACKAGE + ".Missing"), result.loadFailures().keySet());
+        assertEquals(ImmutableSet.of(Order.class, Item.class, Initializer.class), result.batchResult().schemas().keySet());
+        assertEquals(ImmutableSet.of(Category.class), result.batchResult().failures().keySet());
+    }
+
+    @Test
+    public void testSkipDescriptorsAndVersionedClasses() throws Exception {
+        Path archive = temporaryFolder.getRoot().toPath().resolve("multi-release.jar");
+        Path orderClass = Paths.get(Order.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .resolve(Order.class.getName().replace('.', '/') + ".class");
+        byte[] annotated = "Lde/softwareforge/jsonschema/annotations/JsonSchema;".getBytes(UTF_8);
+
+        try (FileSystem fileSystem = FileSystems.newFileSystem(URI.create("jar:" + archive.toUri()), ImmutableMap.of("create", "true"))) {
+            Path target = Files.createDirectories(fileSystem.getPath("/", SCAN_PACKAGE.split("\\.")));
+            Files.copy(orderClass, target.resolve("Order.class"));
+            Files.write(target.resolve("package-info.class"), annotated);
+            Files.write(fileSystem.getPath("/module-info.class"), annotated);
+
+            Path versioned = Files.createDirectories(fileSystem.getPath("/META-INF/versions/9", SCAN_PACKAGE.split("\\.")));
+            Files.copy(orderClass, versioned.resolve("Order.class"));
+        }
+
+        SchemaScanResult result = scanner.scanPaths(ImmutableList.of(archive));
+
+        assertEquals(1, result.scannedClasses());
+        assertTrue(result.loadFailures().isEmpty());
+        assertEquals(ImmutableSet.of(Order.class), result.batchResult().schemas().keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingPath() throws Exception {
+        scanner.scanPaths(ImmutableList.of(temporaryFolder.getRoot().toPath().resolve("missing")));
+    }
+
+    private static void assertScanPackage(SchemaScanResult result) {
+        // Order, Item, Unannotated, Plain, Category, Initializer and Initializer$Tracker
+        assertEquals(7, result.scannedClasses());
+
+        SchemaBatchResult batchResult = result.batchResult();
+        assertEquals(ImmutableSet.of(Order.class, Item.class, Initializer.class), batchResult.schemas().keySet());
+        assertEquals("Order", batchResult.schemas().get(Order.class).get("title").asText());
+        assertEquals(ImmutableSet.of(Category.class), batchResult.failures().keySet());
+        assertEquals(ImmutableSet.of(Order.class, Item.class, Initializer.class, Category.class), batchResult.timings().keySet());
+
+        assertTrue(result.schemasPerSecond() > 0.0d);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.annotations.Nullable;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class SchemaValidatorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+    @Test
+    public void testValidValue() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(Account.class));
+
+        JsonNode value = json("{'login': 'alice', 'age': 30, 'credits': 15, 'level': 'PREMIUM', 'address': {'street': 'Main St'},"
+                + " 'tags': ['a', 'b'], 'unknown': true}");
+        assertTrue(validator.isValid(value));
+        assertTrue(validator.validate(value).isValid());
+    }
+
+    @Test
+    public void testAllErrors() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(Account.class));
+
+        JsonNode value = json("{'age': 12.5, 'credits': 7, 'level': 'GOLD', 'address': {'street': 1, 'number': 5}, 'tags': ['a', 'a']}");
+        assertFalse(validator.isValid(value));
+
+        ValidationResult result = validator.validate(value);
+        assertEquals(ImmutableList.of(
+                "/required", "/age:type", "/credits:multipleOf", "/level:enum", "/address/street:type", "/address:additionalProperties",
+                "/tags:uniqueItems"), describe(result.errors()));
+    }
+
+    @Test
+    public void testStrings() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(Account.class));
+
+        assertEquals(ImmutableList.of("/login:minLength"), describe(validator.validate(json("{'login': 'al'}")).errors()));
+        assertEquals(ImmutableList.of("/login:maxLength"), describe(validator.validate(json("{'login': 'abcdefghi'}")).errors()));
+        assertEquals(ImmutableList.of("/login:pattern"), describe(validator.validate(json("{'login': 'Alice'}")).errors()));
+        assertTrue(validator.isValid(json("{'login': 'abc'}")));
+    }
+
+    @Test
+    public void testNumbers() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(Account.class));
+
+        assertTrue(validator.isValid(json("{'login': 'alice', 'age': 18}")));
+        assertTrue(validator.isValid(json("{'login': 'alice', 'age': 120.0}")));
+        assertFalse(validator.isValid(json("{'login': 'alice', 'age': 17}")));
+        assertFalse(validator.isValid(json("{'login': 'alice', 'age': 121}")));
+        assertFalse(validator.isValid(json("{'login': 'alice', 'age': 12345678901234567890}")));
+
+        // exclusive minimum
+        SchemaValidator productValidator = SchemaValidator.compile(schemaGenerator.generateSchema(ProductTest.Product.class));
+        assertTrue(productValidator.isValid(json("{'id': 1, 'name': 'x', 'price': 0.01}")));
+        assertEquals(ImmutableList.of("/price:minimum"), describe(productValidator.validate(json("{'id': 1, 'name': 'x', 'price': 0}")).errors()));
+    }
+
+    @Test
+    public void testNullable() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(Account.class));
+
+        assertTrue(validator.isValid(json("{'login': 'alice', 'level': null}")));
+        assertFalse(validator.isValid(json("{'login': 'alice', 'level': 'GOLD'}")));
+        assertFalse(validator.isValid(json("{'login': 'alice', 'address': null}")));
+    }
+
+    @Test
+    public void testNumericEnum() throws IOException {
+        ObjectNode schema = (ObjectNode) json("{'enum': [1, 2.5, 'three']}");
+        SchemaValidator validator = SchemaValidator.compile(schema);
+
+        assertTrue(validator.isValid(json("1.0")));
+        assertTrue(validator.isValid(json("2.50")));
+        assertTrue(validator.isValid(json("'three'")));
+        assertFalse(validator.isValid(json("3")));
+    }
+
+    @Test
+    public void testRecursiveDefinitions() throws IOException {
+        JsonSchemaGenerator definitionsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().useDefinitions().build();
+        SchemaValidator validator = SchemaValidator.compile(definitionsGenerator.generateSchema(DefinitionsTest.Person.class));
+
+        assertTrue(validator.isValid(json("{'name': 'a', 'employer': {'employees': [{'name': 'b'}, {'name': 'c', 'employer': {}}]}}")));
+        assertEquals(ImmutableList.of("/employer/employees/1/name:type"),
+                describe(validator.validate(json("{'employer': {'employees': [{'name': 'b'}, {'name': 3}]}}")).errors()));
+    }
+
+    @Test
+    public void testConcurrentValidation() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(Account.class));
+        JsonNode valid = json("{'login': 'alice', 'tags': ['a', 'b']}");
+        JsonNode invalid = json("{'login': 'alice', 'tags': ['a', 'a']}");
+
+        List<Boolean> results = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> validator.isValid(i % 2 == 0 ? valid : invalid))
+                .collect(Collectors.toList());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i % 2 == 0, results.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExternalReference() throws IOException {
+        SchemaValidator.compile((ObjectNode) json("{'properties': {'geo': {'$ref': 'http://json-schema.org/geo'}}}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingReference() throws IOException {
+        SchemaValidator.compile((ObjectNode) json("{'properties': {'a': {'$ref': '#/definitions/Missing'}}}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedKeyword() throws IOException {
+        SchemaValidator.compile((ObjectNode) json("{'anyOf': [{'type': 'string'}, {'type': 'integer'}]}"));
+    }
+
+    private static JsonNode json(String value) throws IOException {
+        return MAPPER.readTree(value.replace('\'', '"'));
+    }
+
+    private static List<String> describe(List<ValidationError> errors) {
+        return errors.stream()
+                .map(error -> error.keyword().equals("required") ? error.path() + "/required" : error.path() + ":" + error.keyword())
+                .collect(Collectors.toList());
+    }
+
+    public enum Level {
+        BASIC, PREMIUM
+    }
+
+    public static class Account {
+
+        @JsonSchema(required = true, pattern = "^[a-z]+$", minLength = 3, maxLength = 8)
+        public String getLogin() {
+            return null;
+        }
+
+        @JsonSchema(minimum = 18, maximum = 120)
+        public int getAge() {
+            return 0;
+        }
+
+        @JsonSchema(multipleOf = 5)
+        public int getCredits() {
+            return 0;
+        }
+
+        @Nullable
+        @JsonSchema
+        public Level getLevel() {
+            return null;
+        }
+
+        @JsonSchema(additionalProperties = false)
+        public Address getAddress() {
+            return null;
+        }
+
+        @JsonSchema(uniqueItems = true)
+        public List<String> getTags() {
+            return null;
+        }
+    }
+
+    public static class Address {
+
+        @JsonSchema
+        public String getStreet() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    private static final int THREADS = 4;
+
+    @Test(timeout = 10_000)
+    public void testConcurrentCallersShareTheComputation() throws Exception {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        List<String> computedValue = new ArrayList<>(ImmutableList.of("value"));
+
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<Callable<List<String>>> callers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            callers.add(() -> {
+                threads.add(Thread.currentThread());
+                return singleFlight.get("key", () -> {
+                    computations.incrementAndGet();
+                    awaitWaitingThreads(threads, THREADS - 1);
+                    return computedValue;
+                }, ArrayList::new);
+            });
+        }
+
+        List<List<String>> values = invokeAll(callers);
+        assertEquals(1, computations.get());
+        for (List<String> value : values) {
+            assertEquals(computedValue, value);
+        }
+        // others waited for the value, so the computing thread also gets a copy.
+        values.forEach(value -> assertNotSame(computedValue, value));
+
+        // nothing is kept
+        assertSame(computedValue, singleFlight.get("key", () -> computedValue, ArrayList::new));
+        assertEquals(1, computations.get());
+    }
+
+    @Test(timeout = 10_000)
+    public void testFailuresArePropagated() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        IllegalStateException failure = new IllegalStateException("failed");
+
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<Callable<String>> callers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            callers.add(() -> {
+                threads.add(Thread.currentThread());
+                return singleFlight.get("key", () -> {
+                    awaitWaitingThreads(threads, THREADS - 1);
+                    throw failure;
+                }, value -> value);
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<String> future : executor.invokeAll(callers)) {
+                try {
+                    future.get();
+                    fail();
+                } catch (ExecutionException e) {
+                    assertSame(failure, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testThreadsWaitingForEachOtherFail() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(2);
+
+        Callable<String> first = () -> singleFlight.get("a", () -> {
+            awaitLatch(started);
+            return singleFlight.get("b", () -> "b", value -> value);
+        }, value -> value);
+        Callable<String> second = () -> singleFlight.get("b", () -> {
+            awaitLatch(started);
+            return singleFlight.get("a", () -> "a", value -> value);
+        }, value -> value);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (Future<String> future : executor.invokeAll(ImmutableList.of(first, second))) {
+                try {
+                    future.get();
+                    fail();
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                    assertEquals("Recursion detected, not supported!", e.getCause().getMessage());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testNestedTypesAreGeneratedOnce() throws Exception {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        AtomicInteger generatedProperties = new AtomicInteger();
+        ThreadLocal<Deque<Type>> enteredTypes = ThreadLocal.withInitial(ArrayDeque::new);
+        GenerationListener listener = new GenerationListener() {
+            @Override
+            public void typeEntered(Type type) {
+                // the properties of the address are generated, not copied
+                if (enteredTypes.get().peek() == SchemaValidatorTest.Address.class) {
+                    generatedProperties.incrementAndGet();
+                    awaitWaitingThreads(threads, THREADS - 1);
+                }
+                enteredTypes.get().push(type);
+            }
+
+            @Override
+            public void typeExited(Type type, long nanos) {
+                enteredTypes.get().pop();
+            }
+        };
+
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().listener(listener).build();
+        List<Callable<ObjectNode>> callers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            // two different roots that both contain the address
+            Class<?> type = i % 2 == 0 ? CanonicalSchemaTest.Order.class : CanonicalSchemaTest.Invoice.class;
+            callers.add(() -> {
+                threads.add(Thread.currentThread());
+                return schemaGenerator.generateSchema(type);
+            });
+        }
+
+        List<ObjectNode> schemas = invokeAll(callers);
+        assertEquals(1, generatedProperties.get());
+
+        JsonSchemaGenerator singleGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+        JsonNode address = singleGenerator.generateSchema(CanonicalSchemaTest.Order.class).at("/properties/address");
+        for (ObjectNode schema : schemas) {
+            assertEquals(address, schema.at("/properties/address"));
+        }
+        assertNotSame(schemas.get(0).at("/properties/address/properties"), schemas.get(1).at("/properties/address/properties"));
+    }
+
+    private static <T> List<T> invokeAll(List<Callable<T>> callers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers.size());
+        try {
+            List<T> values = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(callers)) {
+                values.add(future.get());
+            }
+            return values;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // waits until the other threads block, e.g. for a flight.
+    private static void awaitWaitingThreads(List<Thread> threads, int count) {
+        try {
+            while (threads.stream()
+                    .filter(thread -> thread != Thread.currentThread())
+                    .filter(thread -> thread.getState() == Thread.State.WAITING)
+                    .count() < count) {
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.countDown();
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
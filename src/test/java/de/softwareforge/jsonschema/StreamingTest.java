@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.softwareforge.jsonschema.inheritance.CollegeStudent;
+import de.softwareforge.jsonschema.inheritance.MusicItem;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+public class StreamingTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().build();
+
+    @Test
+    public void testStreamMatchesTree() throws IOException {
+        for (Class<?> type : new Class<?>[]{ProductTest.Product.class, ProductTest.ComplexProduct.class, EmployeeTest.Employee.class,
+                GenericsTest.GenericExample.class, EnumTest.Hyperthing.class, NullableArrayTest.Something.class,
+                MusicItem.class, CollegeStudent.class, Nested.class}) {
+            assertEquals(type.getSimpleName(), treeSchema(schemaGenerator, type), streamSchema(schemaGenerator, type));
+        }
+    }
+
+    @Test
+    public void testStreamFields() throws IOException {
+        JsonSchemaGenerator fieldsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().processFields().disableProcessProperties().build();
+        assertEquals(treeSchema(fieldsGenerator, FieldsOnlyTest.Employee.class), streamSchema(fieldsGenerator, FieldsOnlyTest.Employee.class));
+    }
+
+    @Test
+    public void testStreamCachedSchema() throws IOException {
+        JsonSchemaGenerator cachingGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+        JsonNode schema = treeSchema(cachingGenerator, Nested.class);
+        assertEquals(schema, streamSchema(cachingGenerator, Nested.class));
+    }
+
+    @Test
+    public void testStreamToGenerator() throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(writer)) {
+            generator.writeStartArray();
+            schemaGenerator.writeSchema(Nested.class, generator);
+            schemaGenerator.writeSchema(Nested.class, generator);
+            generator.writeEndArray();
+        }
+
+        JsonNode schemas = MAPPER.readTree(writer.toString());
+        assertTrue(schemas.isArray());
+        assertEquals(2, schemas.size());
+        assertEquals(treeSchema(schemaGenerator, Nested.class), schemas.get(0));
+        assertEquals(treeSchema(schemaGenerator, Nested.class), schemas.get(1));
+    }
+
+    @Test
+    public void testStreamRecursion() throws IOException {
+        try {
+            schemaGenerator.writeSchema(Recursive.class, new ByteArrayOutputStream());
+            fail("recursion not detected");
+        } catch (IllegalStateException e) {
+            assertEquals("Recursion detected, not supported!", e.getMessage());
+        }
+    }
+
+    // serialize and parse the tree, so that numeric node types match the parsed stream
+    private static JsonNode treeSchema(JsonSchemaGenerator generator, Class<?> type) throws IOException {
+        return MAPPER.readTree(MAPPER.writeValueAsBytes(generator.generateSchema(type)));
+    }
+
+    private static JsonNode streamSchema(JsonSchemaGenerator generator, Class<?> type) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        generator.writeSchema(type, outputStream);
+        return MAPPER.readTree(outputStream.toByteArray());
+    }
+
+    static class Nested {
+
+        @JsonProperty(required = true)
+        public ProductTest.Dimension getDimension() {
+            return null;
+        }
+
+        @JsonProperty
+        public List<ProductTest.Dimension> getDimensions() {
+            return null;
+        }
+
+        @JsonProperty
+        public ProductTest.Geo[] getLocations() {
+            return null;
+        }
+
+        @JsonProperty
+        public GenericsTest.GenericExample getExample() {
+            return null;
+        }
+    }
+
+    static class Recursive {
+
+        @JsonProperty
+        public Recursive getRecursive() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class StreamingValidatorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().build();
+
+    @Test
+    public void testMatchesTreeValidation() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(SchemaValidatorTest.Account.class));
+
+        List<String> documents = ImmutableList.of(
+                "{'login': 'alice', 'age': 30, 'credits': 15, 'level': 'PREMIUM', 'address': {'street': 'Main St'}, 'tags': ['a', 'b']}",
+                "{'age': 12.5, 'credits': 7, 'level': 'GOLD', 'address': {'street': 1, 'number': 5}, 'tags': ['a', 'a']}",
+                "{'login': 'al', 'age': 120.0, 'level': null}",
+                "{'login': 'Alice', 'age': 12345678901234567890, 'address': null}",
+                "{'login': 'alice', 'tags': [1, 'b', 'c']}",
+                "[]",
+                "'alice'");
+
+        for (String document : documents) {
+            JsonNode tree = json(document);
+            assertEquals(document, validator.isValid(tree), validator.isValid(parser(document)));
+            assertEquals(document, describe(validator.validate(tree).errors()), describe(validator.validate(parser(document)).errors()));
+        }
+    }
+
+    @Test
+    public void testRecursiveDefinitions() throws IOException {
+        JsonSchemaGenerator definitionsGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().useDefinitions().build();
+        SchemaValidator validator = SchemaValidator.compile(definitionsGenerator.generateSchema(DefinitionsTest.TreeNode.class));
+
+        assertTrue(validator.isValid(parser("{'children': [{'children': []}, {'parent': {'children': [{}]}}]}")));
+        assertEquals(ImmutableSet.of("/children/1/parent/children:type"),
+                describe(validator.validate(parser("{'children': [{}, {'parent': {'children': {}}}]}")).errors()));
+    }
+
+    @Test
+    public void testUniqueObjects() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile((ObjectNode) json(
+                "{'type': 'array', 'uniqueItems': true, 'items': {'type': 'object', 'required': ['a']}}"));
+
+        assertTrue(validator.isValid(parser("[{'a': 1}, {'a': 2}, {'a': 1.0, 'b': 1}]")));
+        assertFalse(validator.isValid(parser("[{'a': 1}, {'a': 2}, {'a': 1}]")));
+        assertEquals(ImmutableSet.of("/1:required"), describe(validator.validate(parser("[{'a': 1}, {'b': 2}]")).errors()));
+    }
+
+    @Test
+    public void testStopsAtFirstError() throws IOException {
+        // the second product is invalid, the document never ends.
+        InputStream document = new SequenceInputStream(
+                new ByteArrayInputStream("[{\"id\": 1, \"name\": \"a\", \"price\": 1.5}, {\"id\": \"2\"}, ".getBytes(UTF_8)),
+                new EndlessInputStream());
+
+        SchemaValidator arrayValidator = SchemaValidator.compile((ObjectNode) MAPPER.createObjectNode()
+                .put("type", "array")
+                .set("items", schemaGenerator.generateSchema(ProductTest.Product.class)));
+        try (JsonParser parser = JSON_FACTORY.createParser(document)) {
+            assertFalse(arrayValidator.isValid(parser));
+        }
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile((ObjectNode) MAPPER.createObjectNode()
+                .put("type", "array")
+                .put("minItems", 100_000)
+                .set("items", schemaGenerator.generateSchema(ProductTest.Product.class)));
+
+        StringBuilder document = new StringBuilder("[");
+        for (int i = 0; i < 100_000; i++) {
+            document.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"name\": \"product\", \"price\": 9.99}");
+        }
+        document.append("]");
+
+        try (JsonParser parser = JSON_FACTORY.createParser(document.toString())) {
+            assertTrue(validator.isValid(parser));
+        }
+    }
+
+    @Test
+    public void testValueSequence() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(ProductTest.Product.class));
+
+        try (JsonParser parser = parser("{'id': 1, 'name': 'a', 'price': 1} {'id': 2, 'price': 1} {'id': 3, 'name': 'c', 'price': 1}")) {
+            assertTrue(validator.isValid(parser));
+            assertEquals(ImmutableSet.of(":required"), describe(validator.validate(parser).errors()));
+            assertTrue(validator.isValid(parser));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoValue() throws IOException {
+        SchemaValidator validator = SchemaValidator.compile(schemaGenerator.generateSchema(ProductTest.Product.class));
+        validator.isValid(parser(" "));
+    }
+
+    private static JsonNode json(String value) throws IOException {
+        return MAPPER.readTree(value.replace('\'', '"'));
+    }
+
+    private static JsonParser parser(String value) throws IOException {
+        return JSON_FACTORY.createParser(value.replace('\'', '"'));
+    }
+
+    // errors are reported in a different order while streaming
+    private static Set<String> describe(List<ValidationError> errors) {
+        return errors.stream()
+                .map(error -> error.path() + ":" + error.keyword())
+                .collect(Collectors.toSet());
+    }
+
+    private static final class EndlessInputStream extends InputStream {
+
+        private static final byte[] ELEMENT = "{\"id\": 1, \"name\": \"a\", \"price\": 1.5}, ".getBytes(UTF_8);
+        private int position = 0;
+
+        @Override
+        public int read() {
+            int value = ELEMENT[position];
+            position = (position + 1) % ELEMENT.length;
+            return value;
+        }
+    }
+}
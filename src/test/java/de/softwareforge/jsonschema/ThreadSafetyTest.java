@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import de.softwareforge.jsonschema.inheritance.CollegeStudent;
+import de.softwareforge.jsonschema.inheritance.MusicItem;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ThreadSafetyTest {
+
+    private static final List<Class<?>> TYPES = ImmutableList.of(ProductTest.Product.class, ProductTest.ComplexProduct.class,
+            EmployeeTest.Employee.class, GenericsTest.GenericExample.class, EnumTest.Hyperthing.class, NullableArrayTest.Something.class,
+            MusicItem.class, CollegeStudent.class, SchemaValidatorTest.Account.class);
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void testSharedGenerator() throws Exception {
+        // without a cache every call generates the schema
+        assertSharedGenerator(JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache());
+    }
+
+    @Test
+    public void testSharedGeneratorWithDefinitions() throws Exception {
+        assertSharedGenerator(JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().useDefinitions());
+    }
+
+    private static void assertSharedGenerator(JsonSchemaGeneratorBuilder.JsonSchemaGeneratorConfigurationBuilder builder) throws Exception {
+        JsonSchemaGenerator schemaGenerator = builder.build();
+
+        List<String> expectedSchemas = new ArrayList<>();
+        List<String> expectedWrittenSchemas = new ArrayList<>();
+        for (Class<?> type : TYPES) {
+            expectedSchemas.add(builder.build().generateSchema(type).toString());
+            expectedWrittenSchemas.add(write(builder.build(), type));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        int index = (offset + i) % TYPES.size();
+                        Class<?> type = TYPES.get(index);
+
+                        assertEquals(expectedSchemas.get(index), schemaGenerator.generateSchema(type).toString());
+                        assertEquals(expectedWrittenSchemas.get(index), write(schemaGenerator, type));
+                        assertEquals(expectedSchemas.get(index), schemaGenerator.generateLazySchema(type).toString());
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String write(JsonSchemaGenerator schemaGenerator, Class<?> type) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        schemaGenerator.writeSchema(type, out);
+        return out.toString("UTF-8");
+    }
+}
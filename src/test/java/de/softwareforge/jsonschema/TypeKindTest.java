@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.reflect.TypeToken;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class TypeKindTest {
+
+    @Test
+    public void testClassify() {
+        assertEquals(TypeKind.SIMPLE, TypeKind.classify(int.class));
+        assertEquals(TypeKind.SIMPLE, TypeKind.classify(String.class));
+        assertEquals(TypeKind.COLLECTION, TypeKind.classify(List.class));
+        assertEquals(TypeKind.COLLECTION, TypeKind.classify(ArrayList.class));
+        assertEquals(TypeKind.COLLECTION, TypeKind.classify(Iterable.class));
+        assertEquals(TypeKind.MAP, TypeKind.classify(HashMap.class));
+        assertEquals(TypeKind.OPTIONAL, TypeKind.classify(Optional.class));
+        assertEquals(TypeKind.ENUM, TypeKind.classify(EnumTest.SimpleEnum.class));
+        assertEquals(TypeKind.VOID, TypeKind.classify(void.class));
+        assertEquals(TypeKind.VOID, TypeKind.classify(Void.class));
+        assertEquals(TypeKind.BEAN, TypeKind.classify(Holder.class));
+
+        // classified once with the metadata of the class
+        assertEquals(TypeKind.MAP, ClassMetadata.forClass(HashMap.class).kind());
+    }
+
+    @Test
+    public void testOptionalKinds() {
+        TypeModel optionalString = TypeModel.of(new TypeToken<Optional<String>>() {}.getType());
+        assertEquals(TypeKind.OPTIONAL, optionalString.kind());
+        assertEquals(Optional.of("string"), optionalString.jsonType());
+
+        // optional values that are not simple are generated like beans
+        TypeModel optionalAddress = TypeModel.of(new TypeToken<Optional<SchemaValidatorTest.Address>>() {}.getType());
+        assertEquals(TypeKind.BEAN, optionalAddress.kind());
+    }
+
+    @Test
+    public void testHandlers() {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().removeSchemaVersion().build();
+        ObjectNode schema = schemaGenerator.generateSchema(Holder.class);
+
+        assertEquals("{\"type\":\"integer\",\"format\":\"int32\"}", schema.at("/properties/count").toString());
+        assertEquals("{\"type\":\"array\",\"items\":{\"type\":\"string\"}}", schema.at("/properties/names").toString());
+        assertEquals("{\"type\":\"object\"}", schema.at("/properties/values").toString());
+        assertEquals("{\"type\":\"string\"}", schema.at("/properties/name").toString());
+        assertEquals("{\"type\":\"string\",\"enum\":[\"A\",\"B\"]}", schema.at("/properties/status").toString());
+    }
+
+    public static class Holder {
+
+        @JsonSchema
+        public int getCount() {
+            return 0;
+        }
+
+        @JsonSchema
+        public List<String> getNames() {
+            return null;
+        }
+
+        @JsonSchema
+        public Map<String, String> getValues() {
+            return null;
+        }
+
+        @JsonSchema
+        public Optional<String> getName() {
+            return Optional.empty();
+        }
+
+        @JsonSchema(enums = {"A", "B"})
+        public String getStatus() {
+            return null;
+        }
+    }
+}
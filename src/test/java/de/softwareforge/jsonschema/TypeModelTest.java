@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+import de.softwareforge.jsonschema.annotations.SchemaIgnore;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Optional;
+
+public class TypeModelTest {
+
+    @Test
+    public void testKinds() {
+        assertModel(TypeModel.of(String.class), TypeKind.SIMPLE, Optional.of("string"));
+        assertModel(TypeModel.of(void.class), TypeKind.VOID, Optional.of("null"));
+        assertModel(TypeModel.of(EnumTest.SimpleEnum.class), TypeKind.ENUM, Optional.empty());
+        assertModel(TypeModel.of(StringBox.class), TypeKind.BEAN, Optional.of("object"));
+
+        TypeModel list = TypeModel.of(new TypeToken<List<String>>() {}.getType());
+        assertModel(list, TypeKind.COLLECTION, Optional.of("array"));
+        assertEquals(Optional.of(String.class), list.itemType());
+        assertEquals(List.class, list.rawType());
+    }
+
+    @Test
+    public void testClassModelsAreShared() {
+        TypeModel model = TypeModel.of(StringBox.class);
+        assertSame(model, TypeModel.of(StringBox.class));
+        assertSame(model, ClassMetadata.forClass(StringBox.class).model());
+        assertSame(model.methodProperties(), TypeModel.of(StringBox.class).methodProperties());
+
+        // parameterized types are modeled for every use
+        Type type = new TypeToken<Box<Integer>>() {}.getType();
+        assertNotSame(TypeModel.of(type), TypeModel.of(type));
+    }
+
+    @Test
+    public void testProperties() {
+        TypeModel model = TypeModel.of(StringBox.class);
+        assertEquals(ImmutableList.of(StringBox.class, Box.class, Object.class), model.hierarchy());
+
+        List<TypeModel.Property> properties = model.methodProperties();
+        assertEquals(2, properties.size());
+        assertEquals("secret", properties.get(0).name());
+        assertTrue(properties.get(0).attributes().ignored());
+        assertEquals("value", properties.get(1).name());
+        assertEquals(String.class, properties.get(1).type());
+        assertFalse(properties.get(1).attributes().ignored());
+        assertTrue(model.fieldProperties().isEmpty());
+
+        TypeModel parameterizedModel = TypeModel.of(new TypeToken<Box<Integer>>() {}.getType());
+        assertEquals(Integer.class, parameterizedModel.methodProperties().get(0).type());
+    }
+
+    @Test
+    public void testOutputsShareTheModel() throws IOException {
+        JsonSchemaGenerator schemaGenerator = JsonSchemaGeneratorBuilder.draftV4Schema().disableSchemaCache().build();
+
+        ObjectNode schema = schemaGenerator.generateSchema(StringBox.class);
+        assertEquals("string", schema.at("/properties/value/type").asText());
+        assertFalse(schema.at("/properties").has("secret"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        schemaGenerator.writeSchema(StringBox.class, out);
+        assertEquals(schema.toString(), out.toString("UTF-8"));
+        assertEquals(schema.toString(), schemaGenerator.generateLazySchema(StringBox.class).toString());
+    }
+
+    private static void assertModel(TypeModel model, TypeKind kind, Optional<String> jsonType) {
+        assertEquals(kind, model.kind());
+        assertEquals(jsonType, model.jsonType());
+    }
+
+    public static class Box<T> {
+
+        @JsonSchema
+        public T getValue() {
+            return null;
+        }
+    }
+
+    public static class StringBox extends Box<String> {
+
+        @SchemaIgnore
+        public String getSecret() {
+            return null;
+        }
+    }
+}
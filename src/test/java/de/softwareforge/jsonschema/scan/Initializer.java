@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.softwareforge.jsonschema.scan;
+
+import de.softwareforge.jsonschema.annotations.JsonSchema;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// records whether the class was initialized
+@JsonSchema(title = "Initializer")
+public class Initializer {
+
+    static {
+        Tracker.INITIALIZED.set(true);
+    }
+
+    @JsonSchema
+    public String getName() {
+        return null;
+    }
+
+    public static final class Tracker {
+
+        public static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+    }
+}